@@ -0,0 +1,104 @@
+package tree.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tree.RBTree;
+import tree.SearchTree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * one batch of random keys added to a tree of random keys, addNode in a loop against addAll.
+ * every invocation starts from a fresh copy of the same base tree.
+ * <pre>
+ *   java -jar target/benchmarks.jar AddAllBenchmark
+ * </pre>
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AddAllBenchmark {
+
+    private static final long SEED = 20221104L;
+
+    @State(Scope.Thread)
+    public static class Batch {
+        @Param({"1000000"})
+        public int treeSize;
+
+        @Param({"1000", "10000", "1000000"})
+        public int batchSize;
+
+        Long[] base;
+        List<Long> batch;
+        RBTree<Long> rbTree;
+        SearchTree<Long> searchTree;
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            long[] keys = KeyDistribution.RANDOM.insertOrder(treeSize + batchSize, SEED);
+            base = new Long[treeSize];
+            Long[] added = new Long[batchSize];
+            for (int i = 0; i < keys.length; i++) {
+                if (i < treeSize) {
+                    base[i] = keys[i];
+                } else {
+                    added[i - treeSize] = keys[i];
+                }
+            }
+            batch = Arrays.asList(added);
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            rbTree = new RBTree<Long>();
+            rbTree.addAll(Arrays.asList(base));
+            searchTree = new SearchTree<Long>();
+            searchTree.addAll(Arrays.asList(base));
+        }
+    }
+
+    @Benchmark
+    public Object rbTreeAddNode(Batch state) {
+        for (Long key : state.batch) {
+            state.rbTree.addNode(key);
+        }
+        return state.rbTree;
+    }
+
+    @Benchmark
+    public Object rbTreeAddAll(Batch state) {
+        return state.rbTree.addAll(state.batch);
+    }
+
+    @Benchmark
+    public Object searchTreeAddNode(Batch state) {
+        for (Long key : state.batch) {
+            state.searchTree.addNode(key);
+        }
+        return state.searchTree;
+    }
+
+    @Benchmark
+    public Object searchTreeAddAll(Batch state) {
+        return state.searchTree.addAll(state.batch);
+    }
+}
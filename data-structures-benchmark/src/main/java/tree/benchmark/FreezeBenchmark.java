@@ -0,0 +1,100 @@
+package tree.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tree.FrozenLongTree;
+import tree.FrozenTree;
+import tree.LongRBTree;
+import tree.RBTree;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * random lookups in a tree built once, pointer descent against the frozen Eytzinger array,
+ * for boxed keys (RBTree / FrozenTree) and primitive keys (LongRBTree / FrozenLongTree).
+ * <pre>
+ *   java -jar target/benchmarks.jar FreezeBenchmark
+ * </pre>
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FreezeBenchmark {
+
+    private static final long SEED = 20221104L;
+
+    private static final int LOOKUP_BUFFER = 1 << 16;
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        @Param({"1000", "1000000", "10000000"})
+        public int size;
+
+        RBTree<Long> rbTree;
+        FrozenTree<Long> frozenTree;
+        LongRBTree longTree;
+        FrozenLongTree frozenLongTree;
+        Long[] boxed;
+        long[] keys;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            rbTree = new RBTree<Long>();
+            longTree = new LongRBTree();
+            for (long key : KeyDistribution.RANDOM.insertOrder(size, SEED)) {
+                rbTree.addNode(key);
+                longTree.addNode(key);
+            }
+            frozenTree = rbTree.freeze();
+            frozenLongTree = longTree.freeze();
+            keys = KeyDistribution.RANDOM.lookupOrder(size, LOOKUP_BUFFER, SEED + 1);
+            boxed = new Long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                boxed[i] = keys[i];
+            }
+        }
+
+        int next() {
+            int i = cursor;
+            cursor = (i + 1) & (LOOKUP_BUFFER - 1);
+            return i;
+        }
+    }
+
+    @Benchmark
+    public Object rbTreeFind(Lookup state) {
+        return state.rbTree.find(state.boxed[state.next()]);
+    }
+
+    @Benchmark
+    public Object frozenTreeFind(Lookup state) {
+        return state.frozenTree.find(state.boxed[state.next()]);
+    }
+
+    @Benchmark
+    public boolean longRBTreeContains(Lookup state) {
+        return state.longTree.contains(state.keys[state.next()]);
+    }
+
+    @Benchmark
+    public boolean frozenLongTreeContains(Lookup state) {
+        return state.frozenLongTree.contains(state.keys[state.next()]);
+    }
+}
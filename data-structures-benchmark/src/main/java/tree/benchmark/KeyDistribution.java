@@ -0,0 +1,140 @@
+package tree.benchmark;
+
+import java.util.Random;
+
+/**
+ * key distributions used by the tree benchmarks.
+ * the key universe of size n is always {@code 0, 2, 4, ..., 2(n-1)}, so odd keys are guaranteed misses.
+ * a distribution decides the order keys are inserted in and the order they are looked up in.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public enum KeyDistribution {
+    /**
+     * uniformly shuffled keys
+     */
+    RANDOM,
+    /**
+     * ascending keys, the worst case for an unbalanced tree
+     */
+    SORTED,
+    /**
+     * descending keys
+     */
+    REVERSE,
+    /**
+     * zipfian (s = 0.99) draws over a shuffled key universe, hot keys repeat.
+     * only lookups are skewed, the insert order is a plain shuffle so every key goes in once
+     */
+    ZIPFIAN;
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * keys in insertion order, every key of the universe exactly once
+     * @param n
+     * @param seed
+     * @return
+     */
+    public long[] insertOrder(int n, long seed) {
+        switch (this) {
+            case SORTED:
+                return ascending(n);
+            case REVERSE:
+                long[] keys = ascending(n);
+                for (int i = 0, j = n - 1; i < j; i++, j--) {
+                    long t = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = t;
+                }
+                return keys;
+            default:
+                return shuffled(n, seed);
+        }
+    }
+
+    /**
+     * keys in lookup order, {@code count} entries drawn from a universe of {@code n} keys
+     * @param n
+     * @param count
+     * @param seed
+     * @return
+     */
+    public long[] lookupOrder(int n, int count, long seed) {
+        long[] keys = new long[count];
+        switch (this) {
+            case SORTED:
+                for (int i = 0; i < count; i++) {
+                    keys[i] = 2L * (i % n);
+                }
+                return keys;
+            case REVERSE:
+                for (int i = 0; i < count; i++) {
+                    keys[i] = 2L * (n - 1 - i % n);
+                }
+                return keys;
+            case ZIPFIAN:
+                return zipfian(n, count, seed);
+            default:
+                Random random = new Random(seed);
+                for (int i = 0; i < count; i++) {
+                    keys[i] = 2L * random.nextInt(n);
+                }
+                return keys;
+        }
+    }
+
+    private static long[] ascending(int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2L * i;
+        }
+        return keys;
+    }
+
+    private static long[] shuffled(int n, long seed) {
+        long[] keys = ascending(n);
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        return keys;
+    }
+
+    /**
+     * zipfian ranks (Gray et al. "Quickly generating billion-record synthetic databases"),
+     * rank r is mapped to a shuffled key so the hot keys are spread over the whole key space
+     */
+    private static long[] zipfian(int n, int count, long seed) {
+        long[] universe = shuffled(n, seed ^ 0x5DEECE66DL);
+        double zetaN = 0;
+        for (int i = 1; i <= n; i++) {
+            zetaN += 1.0 / Math.pow(i, ZIPF_EXPONENT);
+        }
+        double zeta2 = 1.0 + 1.0 / Math.pow(2, ZIPF_EXPONENT);
+        double alpha = 1.0 / (1.0 - ZIPF_EXPONENT);
+        double eta = (1 - Math.pow(2.0 / n, 1 - ZIPF_EXPONENT)) / (1 - zeta2 / zetaN);
+
+        Random random = new Random(seed);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            int rank;
+            if (uz < 1.0) {
+                rank = 0;
+            } else if (uz < zeta2) {
+                rank = 1;
+            } else {
+                rank = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+            }
+            keys[i] = universe[Math.min(rank, n - 1)];
+        }
+        return keys;
+    }
+}
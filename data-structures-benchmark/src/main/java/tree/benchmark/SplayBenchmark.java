@@ -0,0 +1,125 @@
+package tree.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tree.RBTree;
+import tree.SplayTree;
+import tree.TreeMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * lookups under a skewed (zipfian) or uniform key distribution, SplayTree against RBTree.
+ * besides the throughput JMH reports the secondary results {@code lookups} and {@code nodesVisited},
+ * counted through the trees' {@link TreeMetrics} hook; nodesVisited / lookups is the average search depth.
+ * <pre>
+ *   java -jar target/benchmarks.jar SplayBenchmark
+ * </pre>
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SplayBenchmark {
+
+    private static final long SEED = 20221104L;
+
+    private static final int LOOKUP_BUFFER = 1 << 20;
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        @Param({"SPLAY", "RB"})
+        public String impl;
+
+        @Param({"ZIPFIAN", "RANDOM"})
+        public KeyDistribution distribution;
+
+        @Param({"100000", "1000000"})
+        public int size;
+
+        SplayTree<Long> splayTree;
+        RBTree<Long> rbTree;
+        Long[] lookups;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void prepare(Depth depth) {
+            splayTree = new SplayTree<Long>();
+            rbTree = new RBTree<Long>();
+            for (long key : KeyDistribution.RANDOM.insertOrder(size, SEED)) {
+                if ("SPLAY".equals(impl)) {
+                    splayTree.addNode(key);
+                } else {
+                    rbTree.addNode(key);
+                }
+            }
+            splayTree.setMetrics(depth);
+            rbTree.setMetrics(depth);
+            long[] keys = distribution.lookupOrder(size, Math.min(size, LOOKUP_BUFFER), SEED + 1);
+            lookups = new Long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                lookups[i] = keys[i];
+            }
+        }
+
+        Long next() {
+            if (cursor == lookups.length) {
+                cursor = 0;
+            }
+            return lookups[cursor++];
+        }
+    }
+
+    /**
+     * secondary results, JMH sums EVENTS counters over the measured iterations
+     * (plain fields, one thread per state)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Depth implements TreeMetrics {
+        public long lookups;
+        public long nodesVisited;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lookups = 0;
+            nodesVisited = 0;
+        }
+
+        @Override
+        public void recordDescent(int depth, int comparisons) {
+            lookups++;
+            nodesVisited += depth;
+        }
+
+        @Override
+        public void recordRotations(int rotations) {
+        }
+
+        @Override
+        public void recordRebalance(int rebalanceCase) {
+        }
+    }
+
+    @Benchmark
+    public Object find(Lookup state) {
+        Long key = state.next();
+        return "SPLAY".equals(state.impl) ? state.splayTree.find(key) : state.rbTree.find(key);
+    }
+}
@@ -0,0 +1,149 @@
+package tree.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * insert and find throughput / latency of SearchTree, AVLTree, RBTree, BPlusTree and SplayTree
+ * next to TreeMap and ConcurrentSkipListMap.
+ * <p>
+ * Throughput gives ops/s, SampleTime gives the p99 latency, run with {@code -prof gc}
+ * to get the allocation rate:
+ * <pre>
+ *   java -jar target/benchmarks.jar TreeBenchmark -prof gc
+ * </pre>
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TreeBenchmark {
+
+    private static final long SEED = 20221104L;
+
+    /**
+     * lookups are replayed from a fixed buffer so generating keys is not measured
+     */
+    private static final int LOOKUP_BUFFER = 1 << 20;
+
+    @State(Scope.Thread)
+    public static class Insert {
+        @Param({"RB_TREE", "LONG_RB_TREE", "LONG_ARRAY_RB_TREE", "AVL_TREE", "SEARCH_TREE", "B_PLUS_TREE", "SPLAY_TREE", "TREE_MAP", "CONCURRENT_SKIP_LIST_MAP"})
+        public TreeImpl impl;
+
+        @Param({"RANDOM", "SORTED", "REVERSE", "ZIPFIAN"})
+        public KeyDistribution distribution;
+
+        @Param({"1000", "100000", "1000000", "10000000"})
+        public int size;
+
+        Long[] keys;
+        TreeImpl.Keys target;
+        int cursor;
+
+        /**
+         * the tree is filled with all {@code size} keys in the distribution's insert order,
+         * each measured op inserts a missing (odd) key next to one the distribution picks and removes it again,
+         * so every insert goes into a tree of exactly {@code size} keys
+         */
+        @Setup(Level.Trial)
+        public void prepare() {
+            if (!impl.canBuild(distribution, size)) {
+                throw new IllegalStateException(impl + " with " + distribution + " keys degenerates above "
+                        + TreeImpl.DEGENERATE_BUILD_LIMIT + " keys, skipped");
+            }
+            target = impl.create();
+            for (long key : distribution.insertOrder(size, SEED)) {
+                target.add(key);
+            }
+            long[] hits = distribution.lookupOrder(size, Math.min(size, LOOKUP_BUFFER), SEED + 1);
+            keys = new Long[hits.length];
+            for (int i = 0; i < hits.length; i++) {
+                keys[i] = hits[i] + 1;
+            }
+        }
+
+        Long next() {
+            if (cursor == keys.length) {
+                cursor = 0;
+            }
+            return keys[cursor++];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Find {
+        @Param({"RB_TREE", "LONG_RB_TREE", "LONG_ARRAY_RB_TREE", "AVL_TREE", "SEARCH_TREE", "B_PLUS_TREE", "SPLAY_TREE", "TREE_MAP", "CONCURRENT_SKIP_LIST_MAP"})
+        public TreeImpl impl;
+
+        @Param({"RANDOM", "SORTED", "REVERSE", "ZIPFIAN"})
+        public KeyDistribution distribution;
+
+        @Param({"1000", "100000", "1000000", "10000000"})
+        public int size;
+
+        Long[] lookups;
+        TreeImpl.Keys target;
+        int cursor;
+
+        /**
+         * the tree always holds all {@code size} keys inserted in random order,
+         * the distribution only decides the lookup order
+         */
+        @Setup(Level.Trial)
+        public void prepare() {
+            target = impl.create();
+            for (long key : KeyDistribution.RANDOM.insertOrder(size, SEED)) {
+                target.add(key);
+            }
+            lookups = box(distribution.lookupOrder(size, Math.min(size, LOOKUP_BUFFER), SEED + 1));
+        }
+
+        Long next() {
+            if (cursor == lookups.length) {
+                cursor = 0;
+            }
+            return lookups[cursor++];
+        }
+    }
+
+    /**
+     * one insert into a tree of {@code size} keys, plus the remove that restores it
+     */
+    @Benchmark
+    public void insert(Insert state) {
+        Long key = state.next();
+        state.target.add(key);
+        state.target.remove(key);
+    }
+
+    @Benchmark
+    public Object find(Find state) {
+        return state.target.find(state.next());
+    }
+
+    private static Long[] box(long[] keys) {
+        Long[] boxed = new Long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            boxed[i] = keys[i];
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,251 @@
+package tree.benchmark;
+
+import tree.AVLTree;
+import tree.BPlusTree;
+import tree.LongArrayRBTree;
+import tree.LongRBTree;
+import tree.RBTree;
+import tree.SearchTree;
+import tree.SplayTree;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * the ordered structures under benchmark, each behind the same small adapter
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public enum TreeImpl {
+    SEARCH_TREE {
+        @Override
+        public Keys create() {
+            final SearchTree<Long> tree = new SearchTree<Long>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.addNode(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.find(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.removeNode(key);
+                }
+            };
+        }
+    },
+    AVL_TREE {
+        @Override
+        public Keys create() {
+            final AVLTree<Long> tree = new AVLTree<Long>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.insert(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.find(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.remove(key);
+                }
+            };
+        }
+    },
+    RB_TREE {
+        @Override
+        public Keys create() {
+            final RBTree<Long> tree = new RBTree<Long>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.addNode(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.find(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.removeNode(key);
+                }
+            };
+        }
+    },
+    LONG_RB_TREE {
+        @Override
+        public Keys create() {
+            final LongRBTree tree = new LongRBTree();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.addNode(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.contains(key) ? key : null;
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.removeNode(key);
+                }
+            };
+        }
+    },
+    LONG_ARRAY_RB_TREE {
+        @Override
+        public Keys create() {
+            final LongArrayRBTree tree = new LongArrayRBTree();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.addNode(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.contains(key) ? key : null;
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.removeNode(key);
+                }
+            };
+        }
+    },
+    B_PLUS_TREE {
+        @Override
+        public Keys create() {
+            final BPlusTree<Long> tree = new BPlusTree<Long>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.addNode(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.find(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.removeNode(key);
+                }
+            };
+        }
+    },
+    SPLAY_TREE {
+        @Override
+        public Keys create() {
+            final SplayTree<Long> tree = new SplayTree<Long>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    tree.addNode(key);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return tree.find(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    tree.removeNode(key);
+                }
+            };
+        }
+    },
+    TREE_MAP {
+        @Override
+        public Keys create() {
+            final TreeMap<Long, Boolean> map = new TreeMap<Long, Boolean>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    map.put(key, Boolean.TRUE);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return map.get(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    map.remove(key);
+                }
+            };
+        }
+    },
+    CONCURRENT_SKIP_LIST_MAP {
+        @Override
+        public Keys create() {
+            final ConcurrentSkipListMap<Long, Boolean> map = new ConcurrentSkipListMap<Long, Boolean>();
+            return new Keys() {
+                @Override
+                public void add(Long key) {
+                    map.put(key, Boolean.TRUE);
+                }
+
+                @Override
+                public Object find(Long key) {
+                    return map.get(key);
+                }
+
+                @Override
+                public void remove(Long key) {
+                    map.remove(key);
+                }
+            };
+        }
+    };
+
+    /**
+     * unbalanced trees built from monotone keys above this size take O(n^2) to set up,
+     * such combinations fail fast instead of hanging the run
+     */
+    static final int DEGENERATE_BUILD_LIMIT = 100_000;
+
+    public abstract Keys create();
+
+    /**
+     * whether building {@code size} keys in the given order stays tractable
+     * @param distribution
+     * @param size
+     * @return
+     */
+    public boolean canBuild(KeyDistribution distribution, int size) {
+        return this != SEARCH_TREE
+                || size <= DEGENERATE_BUILD_LIMIT
+                || (distribution != KeyDistribution.SORTED && distribution != KeyDistribution.REVERSE);
+    }
+
+    /**
+     * minimal ordered-set surface shared by all structures
+     */
+    public interface Keys {
+        void add(Long key);
+
+        Object find(Long key);
+
+        void remove(Long key);
+    }
+}
@@ -1,5 +1,12 @@
 package tree;
 
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * AVL树
  * @author changzer
@@ -10,6 +17,7 @@ class AVLnode<T extends Comparable<T>> {
     T data; // 结点数据
     int bf; // 平衡因子,左高记为1，右高记为-1，平衡记为0
     AVLnode<T> lChild, rChild; // 左右孩子
+    AVLnode<T> parent; // 父结点，自底向上回溯用
 
     AVLnode(T value) {
         this.data = value;
@@ -18,11 +26,31 @@ class AVLnode<T extends Comparable<T>> {
         rChild = null;
     }
 }
-public class AVLTree<T extends Comparable<T>> {
+public class AVLTree<T extends Comparable<T>> implements Iterable<T> {
 
     private AVLnode<T> root;
+    private AtomicLong size = new AtomicLong(0);
+    // 热路径计数，默认不统计
+    private TreeMetrics metrics = TreeMetrics.NOOP;
 
+    /**
+     * 结点个数
+     */
+    public long getSize() {
+        return size.get();
+    }
 
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置统计：每次查找下降的深度、比较次数以及LL/LR/RR/RL平衡旋转的次数
+     * @param metrics 为null时关闭统计
+     */
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics == null ? TreeMetrics.NOOP : metrics;
+    }
 
     /**
      * 右旋
@@ -31,7 +59,12 @@ public class AVLTree<T extends Comparable<T>> {
     public AVLnode<T> rRotate(AVLnode<T> p) {
         AVLnode<T> l = p.lChild;
         p.lChild = l.rChild;
+        if (p.lChild != null) {
+            p.lChild.parent = p;
+        }
         l.rChild = p;
+        l.parent = p.parent;
+        p.parent = l;
         return l;
     }
 
@@ -42,7 +75,12 @@ public class AVLTree<T extends Comparable<T>> {
     public AVLnode<T> lRotate(AVLnode<T> p) {
         AVLnode<T> r = p.rChild;
         p.rChild = r.lChild;
+        if (p.rChild != null) {
+            p.rChild.parent = p;
+        }
         r.lChild = p;
+        r.parent = p.parent;
+        p.parent = r;
         return r;
     }
 
@@ -54,10 +92,12 @@ public class AVLTree<T extends Comparable<T>> {
         AVLnode<T> l = p.lChild;
         switch (l.bf) {
         case 1: // 情況(1)
+            metrics.recordRebalance(TreeMetrics.REBALANCE_LL);
             p.bf = 0;
             l.bf = 0;
             return rRotate(p);
         case -1:
+            metrics.recordRebalance(TreeMetrics.REBALANCE_LR);
             AVLnode<T> lr = l.rChild;
             switch (lr.bf) {
             case 1: // 情況(2)
@@ -78,7 +118,8 @@ public class AVLTree<T extends Comparable<T>> {
             p.lChild = lRotate(l);// 不能用l=leftBalance(l);
             // 再右旋
             return rRotate(p);
-        case 0: // 这种情况书中没有考虑到，情况(5)
+        case 0: // 这种情况书中没有考虑到，情况(5)，只在删除时出现
+            metrics.recordRebalance(TreeMetrics.REBALANCE_LL);
             l.bf = -1;
             p.bf = 1;
             return rRotate(p);
@@ -96,10 +137,12 @@ public class AVLTree<T extends Comparable<T>> {
         AVLnode<T> r = p.rChild;
         switch (r.bf) {
         case -1:
+            metrics.recordRebalance(TreeMetrics.REBALANCE_RR);
             p.bf = 0;
             r.bf = 0;
             return lRotate(p);
         case 1:
+            metrics.recordRebalance(TreeMetrics.REBALANCE_RL);
             AVLnode<T> rl = r.lChild;
             switch (rl.bf) {
             case 1:
@@ -119,6 +162,7 @@ public class AVLTree<T extends Comparable<T>> {
             p.rChild = rRotate(r);
             return lRotate(p);
         case 0:
+            metrics.recordRebalance(TreeMetrics.REBALANCE_RR);
             p.bf = -1;
             r.bf = 1;
             return lRotate(p);
@@ -129,63 +173,317 @@ public class AVLTree<T extends Comparable<T>> {
     }
 
     /**
-     * 插入操作
-     * 要多定义一个taller变量
+     * 查找操作
+     * @return 树中与key相等的值，不存在返回null
      */
-    boolean taller;// 树是否长高
+    public T find(T key) {
+        AVLnode<T> node = findNode(key);
+        return node == null ? null : node.data;
+    }
 
-    public void insert(T key) {
-        root = insert(root, key);
+    private AVLnode<T> findNode(T key) {
+        AVLnode<T> cur = root;
+        int depth = 0;
+        while (cur != null) {
+            depth++;
+            int cmp = key.compareTo(cur.data);
+            if (cmp < 0) {
+                cur = cur.lChild;
+            } else if (cmp > 0) {
+                cur = cur.rChild;
+            } else {
+                break;
+            }
+        }
+        metrics.recordDescent(depth, depth);
+        return cur;
     }
 
-    private AVLnode<T> insert(AVLnode<T> tree, T  key) {// 二叉查找树的插入操作一样，但多了树是否长高的判断（树没长高就完全类似BST二叉树），要记得每次对taller赋值
-        if (tree == null) {
-            taller = true;
-            return new AVLnode<T>(key);
+    /**
+     * 插入操作，非递归
+     * 先像BST一样找到插入位置，再沿父结点向上修改bf：
+     * 子树长高且父结点原本平衡则继续向上，原本矮的一边长高则停止，原本高的一边又长高则平衡旋转后停止
+     * @return 插入成功返回true，数据重复返回false
+     */
+    public boolean insert(T key) {
+        if (root == null) {
+            root = new AVLnode<T>(key);
+            size.incrementAndGet();
+            return true;
+        }
+        AVLnode<T> parent = null;
+        AVLnode<T> cur = root;
+        int cmp = 0;
+        int depth = 0;
+        while (cur != null) {
+            depth++;
+            cmp = key.compareTo(cur.data);
+            if (cmp == 0) {
+                // 数据重复，无法插入
+                metrics.recordDescent(depth, depth);
+                return false;
+            }
+            parent = cur;
+            cur = cmp < 0 ? cur.lChild : cur.rChild;
         }
-        int cmp = tree.data.compareTo(key);
-        if (key == tree.data) {
-            System.out.println("数据重复，无法插入！");
-            taller = false;
-            return tree;
-        } else if (cmp > 0) {
-            tree.lChild = insert(tree.lChild, key);
-            if (taller == true) { // 左子树长高了，要对tree的平衡度分析
-                switch (tree.bf) {
-                case 1: // 原本左子树比右子树高，需要左平衡处理
-                    taller = false; // 左平衡处理，高度没有增加
-                    return leftBalance(tree);
+        metrics.recordDescent(depth, depth);
+        AVLnode<T> node = new AVLnode<T>(key);
+        node.parent = parent;
+        if (cmp < 0) {
+            parent.lChild = node;
+        } else {
+            parent.rChild = node;
+        }
+        size.incrementAndGet();
+
+        // 从新结点向上回溯，child所在子树长高了
+        AVLnode<T> child = node;
+        AVLnode<T> p = parent;
+        while (p != null) {
+            if (child == p.lChild) {
+                switch (p.bf) {
+                case 1: // 原本左子树比右子树高，需要左平衡处理，处理后高度不变
+                    replaceChild(p.parent, p, leftBalance(p));
+                    return true;
                 case 0: // 原本左右子树等高，现因左子树增高而增高
-                    tree.bf = 1;
-                    taller = true;
-                    return tree;
-                case -1: // 原本右子树比左子树高，现左右子树相等
-                    tree.bf = 0;
-                    taller = false;
-                    return tree;
+                    p.bf = 1;
+                    break;
+                default: // 原本右子树比左子树高，现左右子树相等
+                    p.bf = 0;
+                    return true;
                 }
-            }
-        } else if (cmp < 0) {
-            tree.rChild = insert(tree.rChild, key);
-            if (taller == true) { // 右子树长高了，要对tree的平衡度分析
-                switch (tree.bf) {
+            } else {
+                switch (p.bf) {
                 case 1: // 原本左子树高，现等高
-                    tree.bf = 0;
-                    taller = false;
-                    return tree;
+                    p.bf = 0;
+                    return true;
                 case 0: // 原本等高，现右边增高了
-                    tree.bf = -1;
-                    taller = true;
-                    return tree;
-                case -1: // 原本右子树高，需右平衡处理
-                    taller = false;
-                    return rightBalance(tree);
+                    p.bf = -1;
+                    break;
+                default: // 原本右子树高，需右平衡处理，处理后高度不变
+                    replaceChild(p.parent, p, rightBalance(p));
+                    return true;
                 }
             }
+            child = p;
+            p = p.parent;
         }
+        return true;
+    }
+
+    /**
+     * 删除操作，非递归
+     * 有两个孩子时用后继的值顶替，再删除后继结点；然后沿父结点向上修改bf：
+     * 子树变矮且父结点原本平衡则停止，原本高的一边变矮则继续向上，
+     * 原本矮的一边又变矮则平衡旋转，旋转后若高度不变（另一边孩子原本平衡）则停止
+     * @return 删除成功返回true，不存在返回false
+     */
+    public boolean remove(T key) {
+        AVLnode<T> node = findNode(key);
+        if (node == null) {
+            return false;
+        }
+        if (node.lChild != null && node.rChild != null) {
+            AVLnode<T> successor = node.rChild;
+            while (successor.lChild != null) {
+                successor = successor.lChild;
+            }
+            node.data = successor.data;
+            node = successor;
+        }
+
+        // node至多有一个孩子，孩子直接顶替该结点
+        AVLnode<T> child = node.lChild != null ? node.lChild : node.rChild;
+        AVLnode<T> p = node.parent;
+        boolean fromLeft = p != null && p.lChild == node;
+        if (child != null) {
+            child.parent = p;
+        }
+        replaceChild(p, node, child);
+        node.lChild = node.rChild = node.parent = null;
+        size.decrementAndGet();
+
+        // 从被删位置向上回溯，fromLeft表示p的哪一边变矮了
+        while (p != null) {
+            AVLnode<T> g = p.parent;
+            AVLnode<T> sub = p;
+            if (fromLeft) {
+                if (p.bf == 1) { // 原本左高，现等高，高度减一
+                    p.bf = 0;
+                } else if (p.bf == 0) { // 原本等高，现右高，高度不变
+                    p.bf = -1;
+                    return true;
+                } else { // 原本右高，需右平衡处理
+                    int rbf = p.rChild.bf;
+                    sub = rightBalance(p);
+                    replaceChild(g, p, sub);
+                    if (rbf == 0) {
+                        return true;
+                    }
+                }
+            } else {
+                if (p.bf == -1) { // 原本右高，现等高，高度减一
+                    p.bf = 0;
+                } else if (p.bf == 0) { // 原本等高，现左高，高度不变
+                    p.bf = 1;
+                    return true;
+                } else { // 原本左高，需左平衡处理
+                    int lbf = p.lChild.bf;
+                    sub = leftBalance(p);
+                    replaceChild(g, p, sub);
+                    if (lbf == 0) {
+                        return true;
+                    }
+                }
+            }
+            fromLeft = g != null && g.lChild == sub;
+            p = g;
+        }
+        return true;
+    }
+
+    /**
+     * 用newChild替换parent下的oldChild，parent为null时替换根结点
+     */
+    private void replaceChild(AVLnode<T> parent, AVLnode<T> oldChild, AVLnode<T> newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.lChild == oldChild) {
+            parent.lChild = newChild;
+        } else {
+            parent.rChild = newChild;
+        }
+    }
+
+    /**
+     * 由有序序列构建AVL树，见 {@link #bulkLoad(Iterator, long)}
+     */
+    public static <T extends Comparable<T>> AVLTree<T> fromSorted(Iterator<T> sorted, long size) {
+        AVLTree<T> tree = new AVLTree<T>();
+        tree.bulkLoad(sorted, size);
         return tree;
     }
 
+    /**
+     * 批量构建：用严格递增的前size个值在O(n)内建出一棵空树，
+     * 中间值作根，左右两半递归同样处理，不做任何比较下降和旋转。
+     * 左半比右半至多少一个结点，所以n个结点的子树高度恰为n的二进制位数，bf只会是0或-1
+     */
+    public void bulkLoad(Iterator<T> sorted, long size) {
+        if (root != null) {
+            throw new IllegalStateException("bulk load needs an empty tree");
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("size is negative: " + size);
+        }
+        root = new SortedBuilder<T>(sorted).build(size);
+        this.size.set(size);
+    }
+
+    /**
+     * 按中序从迭代器取值，同时检查是否严格递增
+     */
+    private static class SortedBuilder<T extends Comparable<T>> {
+        private final Iterator<T> sorted;
+        private T last;
+
+        SortedBuilder(Iterator<T> sorted) {
+            this.sorted = sorted;
+        }
+
+        AVLnode<T> build(long count) {
+            if (count == 0) {
+                return null;
+            }
+            long leftCount = (count - 1) / 2;
+            long rightCount = count - 1 - leftCount;
+            AVLnode<T> left = build(leftCount);
+
+            T value = sorted.next();
+            if (last != null && last.compareTo(value) >= 0) {
+                throw new IllegalArgumentException("values are not in strictly ascending order: " + last + ", " + value);
+            }
+            last = value;
+            AVLnode<T> node = new AVLnode<T>(value);
+
+            node.lChild = left;
+            node.rChild = build(rightCount);
+            if (node.lChild != null) {
+                node.lChild.parent = node;
+            }
+            if (node.rChild != null) {
+                node.rChild.parent = node;
+            }
+            node.bf = height(leftCount) - height(rightCount);
+            return node;
+        }
+
+        private static int height(long count) {
+            return 64 - Long.numberOfLeadingZeros(count);
+        }
+    }
+
+    /**
+     * 升序迭代器，迭代期间树不能被修改
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * 按子树拆分的升序spliterator，先在根结点拆分，再在其孩子处拆分
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new NodeSpliterator<T>(null, root, getSize(),
+                Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 并行流，运行期间树不能被修改
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * 编译为只读的 {@link FrozenTree}，之后的修改不可见
+     */
+    public FrozenTree<T> freeze() {
+        return FrozenTree.fromSorted(iterator(), getSize());
+    }
+
+    private static class NodeSpliterator<T extends Comparable<T>> extends TreeSpliterator<AVLnode<T>, T> {
+        NodeSpliterator(AVLnode<T> head, AVLnode<T> subtree, long estimate, int characteristics) {
+            super(head, subtree, estimate, characteristics);
+        }
+
+        @Override
+        AVLnode<T> left(AVLnode<T> node) {
+            return node.lChild;
+        }
+
+        @Override
+        AVLnode<T> right(AVLnode<T> node) {
+            return node.rChild;
+        }
+
+        @Override
+        T value(AVLnode<T> node) {
+            return node.data;
+        }
+
+        @Override
+        TreeSpliterator<AVLnode<T>, T> split(AVLnode<T> head, AVLnode<T> subtree, long estimate, int characteristics) {
+            return new NodeSpliterator<T>(head, subtree, estimate, characteristics);
+        }
+    }
+
     /**
      * 前序遍历
      */
@@ -0,0 +1,543 @@
+package tree;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+abstract class BPlusTreeNode<T extends Comparable<T>> {
+    //sorted keys, one spare slot so a node can overflow before it is split
+    final Object[] keys;
+    int count;
+
+    BPlusTreeNode(int maxKeys) {
+        this.keys = new Object[maxKeys + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    T keyAt(int i) {
+        return (T) keys[i];
+    }
+
+    /**
+     * binary search in keys[0, count)
+     * @return index of value, or -(insertion point) - 1
+     */
+    @SuppressWarnings("unchecked")
+    int search(T value) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = ((T) keys[mid]).compareTo(value);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+}
+
+class BPlusTreeLeaf<T extends Comparable<T>> extends BPlusTreeNode<T> {
+    //right neighbour, leaves form an ascending list
+    BPlusTreeLeaf<T> next;
+
+    BPlusTreeLeaf(int maxKeys) {
+        super(maxKeys);
+    }
+}
+
+class BPlusTreeInternal<T extends Comparable<T>> extends BPlusTreeNode<T> {
+    //children[i] holds keys below keys[i], children[i + 1] keys from keys[i] on; count + 1 children
+    final Object[] children;
+
+    BPlusTreeInternal(int maxKeys) {
+        super(maxKeys);
+        this.children = new Object[maxKeys + 2];
+    }
+
+    @SuppressWarnings("unchecked")
+    BPlusTreeNode<T> childAt(int i) {
+        return (BPlusTreeNode<T>) children[i];
+    }
+
+    /**
+     * the child whose range holds value
+     */
+    int childIndex(T value) {
+        int i = search(value);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+}
+
+/**
+ * B+ tree: every node keeps up to order - 1 sorted keys in one array and is searched with a binary search,
+ * values live only in the leaves and the leaves are linked for range scans.
+ * a lookup touches about log(n)/log(order) nodes instead of log2(n) for the binary trees,
+ * each of them a few adjacent cache lines.
+ * <p>
+ * same surface as {@link RBTree} in override mode: an equal value is replaced.
+ */
+public class BPlusTree<T extends Comparable<T>> implements Iterable<T> {
+    public static final int DEFAULT_ORDER = 64;
+
+    private final int maxKeys;
+    private final int minKeys;
+    private BPlusTreeNode<T> root;
+    private AtomicLong size = new AtomicLong(0);
+    //number of structural changes, lets iterators fail fast
+    private int modCount;
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @param order max children of an internal node, at least 3
+     */
+    public BPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("order must be at least 3: " + order);
+        }
+        this.maxKeys = order - 1;
+        this.minKeys = maxKeys / 2;
+        this.root = new BPlusTreeLeaf<T>(maxKeys);
+    }
+
+    /**
+     * number of tree number
+     * @return
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    BPlusTreeNode<T> getRoot() {
+        return root;
+    }
+
+    int getMinKeys() {
+        return minKeys;
+    }
+
+    /**
+     * find the value equal to the given one, null if absent
+     * @param value
+     * @return
+     */
+    public T find(T value) {
+        BPlusTreeLeaf<T> leaf = findLeaf(value);
+        int i = leaf.search(value);
+        return i >= 0 ? leaf.keyAt(i) : null;
+    }
+
+    /**
+     * add value, an equal value already in the tree is replaced
+     * @param value
+     * @return the replaced value, null if value is new
+     */
+    public T addNode(T value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        //walk down remembering the path, the splits go back up it
+        BPlusTreeInternal<?>[] path = new BPlusTreeInternal<?>[height()];
+        int[] slots = new int[path.length];
+        int depth = 0;
+        BPlusTreeNode<T> node = root;
+        while (node instanceof BPlusTreeInternal) {
+            BPlusTreeInternal<T> internal = (BPlusTreeInternal<T>) node;
+            int slot = internal.childIndex(value);
+            path[depth] = internal;
+            slots[depth++] = slot;
+            node = internal.childAt(slot);
+        }
+
+        BPlusTreeLeaf<T> leaf = (BPlusTreeLeaf<T>) node;
+        int i = leaf.search(value);
+        if (i >= 0) {
+            T old = leaf.keyAt(i);
+            leaf.keys[i] = value;
+            return old;
+        }
+        insertAt(leaf.keys, leaf.count, -i - 1, value);
+        leaf.count++;
+        size.incrementAndGet();
+        modCount++;
+
+        //split upward while a node overflows
+        BPlusTreeNode<T> full = leaf;
+        while (full.count > maxKeys) {
+            BPlusTreeNode<T> right;
+            Object separator;
+            if (full instanceof BPlusTreeLeaf) {
+                BPlusTreeLeaf<T> left = (BPlusTreeLeaf<T>) full;
+                BPlusTreeLeaf<T> newLeaf = new BPlusTreeLeaf<T>(maxKeys);
+                int keep = (left.count + 1) / 2;
+                moveKeys(left, keep, newLeaf);
+                newLeaf.next = left.next;
+                left.next = newLeaf;
+                right = newLeaf;
+                separator = newLeaf.keys[0];
+            } else {
+                BPlusTreeInternal<T> left = (BPlusTreeInternal<T>) full;
+                BPlusTreeInternal<T> newInternal = new BPlusTreeInternal<T>(maxKeys);
+                int keep = left.count / 2;
+                separator = left.keys[keep];
+                System.arraycopy(left.children, keep + 1, newInternal.children, 0, left.count - keep);
+                Arrays.fill(left.children, keep + 1, left.count + 1, null);
+                //the middle key moves up, it is not kept in either half
+                System.arraycopy(left.keys, keep + 1, newInternal.keys, 0, left.count - keep - 1);
+                newInternal.count = left.count - keep - 1;
+                Arrays.fill(left.keys, keep, left.count, null);
+                left.count = keep;
+                right = newInternal;
+            }
+
+            if (depth == 0) {
+                BPlusTreeInternal<T> newRoot = new BPlusTreeInternal<T>(maxKeys);
+                newRoot.keys[0] = separator;
+                newRoot.children[0] = full;
+                newRoot.children[1] = right;
+                newRoot.count = 1;
+                root = newRoot;
+                break;
+            }
+            @SuppressWarnings("unchecked")
+            BPlusTreeInternal<T> parent = (BPlusTreeInternal<T>) path[--depth];
+            int slot = slots[depth];
+            insertAt(parent.keys, parent.count, slot, separator);
+            insertAt(parent.children, parent.count + 1, slot + 1, right);
+            parent.count++;
+            full = parent;
+        }
+        return null;
+    }
+
+    /**
+     * remove the value equal to the given one
+     * @param value
+     * @return the removed value, null if value not exist
+     */
+    public T removeNode(T value) {
+        BPlusTreeInternal<?>[] path = new BPlusTreeInternal<?>[height()];
+        int[] slots = new int[path.length];
+        int depth = 0;
+        BPlusTreeNode<T> node = root;
+        while (node instanceof BPlusTreeInternal) {
+            BPlusTreeInternal<T> internal = (BPlusTreeInternal<T>) node;
+            int slot = internal.childIndex(value);
+            path[depth] = internal;
+            slots[depth++] = slot;
+            node = internal.childAt(slot);
+        }
+
+        BPlusTreeLeaf<T> leaf = (BPlusTreeLeaf<T>) node;
+        int i = leaf.search(value);
+        if (i < 0) {
+            return null;
+        }
+        T old = leaf.keyAt(i);
+        removeAt(leaf.keys, leaf.count, i);
+        leaf.count--;
+        size.decrementAndGet();
+        modCount++;
+
+        //borrow from or merge with a sibling while a node underflows, the root may get as small as it likes
+        BPlusTreeNode<T> small = leaf;
+        while (depth > 0 && small.count < minKeys) {
+            @SuppressWarnings("unchecked")
+            BPlusTreeInternal<T> parent = (BPlusTreeInternal<T>) path[--depth];
+            int slot = slots[depth];
+            if (slot > 0 && parent.childAt(slot - 1).count > minKeys) {
+                borrowFromLeft(parent, slot);
+                break;
+            }
+            if (slot < parent.count && parent.childAt(slot + 1).count > minKeys) {
+                borrowFromRight(parent, slot);
+                break;
+            }
+            merge(parent, slot > 0 ? slot - 1 : slot);
+            small = parent;
+        }
+
+        //an internal root left with a single child hands the root over to it
+        if (root.count == 0 && root instanceof BPlusTreeInternal) {
+            root = ((BPlusTreeInternal<T>) root).childAt(0);
+        }
+        return old;
+    }
+
+    /**
+     * remove every value
+     */
+    public void clear() {
+        root = new BPlusTreeLeaf<T>(maxKeys);
+        size.set(0);
+        modCount++;
+    }
+
+    /**
+     * ascending iterator along the leaf list
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new LeafIterator(firstLeaf(), 0, null);
+    }
+
+    /**
+     * values in [lo, hi), one descent to lo then a walk along the leaves
+     * @param lo
+     * @param hi
+     * @return
+     */
+    public Iterable<T> subSet(final T lo, final T hi) {
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return iteratorFrom(lo, hi);
+            }
+        };
+    }
+
+    /**
+     * values less than hi
+     * @param hi
+     * @return
+     */
+    public Iterable<T> headSet(final T hi) {
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new LeafIterator(firstLeaf(), 0, hi);
+            }
+        };
+    }
+
+    /**
+     * values greater than or equal to lo
+     * @param lo
+     * @return
+     */
+    public Iterable<T> tailSet(final T lo) {
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return iteratorFrom(lo, null);
+            }
+        };
+    }
+
+    private Iterator<T> iteratorFrom(T lo, T hi) {
+        BPlusTreeLeaf<T> leaf = findLeaf(lo);
+        int i = leaf.search(lo);
+        return new LeafIterator(leaf, i >= 0 ? i : -i - 1, hi);
+    }
+
+    private BPlusTreeLeaf<T> firstLeaf() {
+        BPlusTreeNode<T> node = root;
+        while (node instanceof BPlusTreeInternal) {
+            node = ((BPlusTreeInternal<T>) node).childAt(0);
+        }
+        return (BPlusTreeLeaf<T>) node;
+    }
+
+    private BPlusTreeLeaf<T> findLeaf(T value) {
+        BPlusTreeNode<T> node = root;
+        while (node instanceof BPlusTreeInternal) {
+            BPlusTreeInternal<T> internal = (BPlusTreeInternal<T>) node;
+            node = internal.childAt(internal.childIndex(value));
+        }
+        return (BPlusTreeLeaf<T>) node;
+    }
+
+    //number of internal levels, all leaves are at the same depth
+    private int height() {
+        int height = 0;
+        for (BPlusTreeNode<T> node = root; node instanceof BPlusTreeInternal;
+             node = ((BPlusTreeInternal<T>) node).childAt(0)) {
+            height++;
+        }
+        return height;
+    }
+
+    private void borrowFromLeft(BPlusTreeInternal<T> parent, int slot) {
+        BPlusTreeNode<T> node = parent.childAt(slot);
+        BPlusTreeNode<T> left = parent.childAt(slot - 1);
+        if (node instanceof BPlusTreeLeaf) {
+            insertAt(node.keys, node.count, 0, left.keys[left.count - 1]);
+            parent.keys[slot - 1] = node.keys[0];
+        } else {
+            BPlusTreeInternal<T> n = (BPlusTreeInternal<T>) node;
+            BPlusTreeInternal<T> l = (BPlusTreeInternal<T>) left;
+            //the separator comes down, left's last key goes up
+            insertAt(n.keys, n.count, 0, parent.keys[slot - 1]);
+            insertAt(n.children, n.count + 1, 0, l.children[l.count]);
+            l.children[l.count] = null;
+            parent.keys[slot - 1] = l.keys[l.count - 1];
+        }
+        left.keys[left.count - 1] = null;
+        left.count--;
+        node.count++;
+    }
+
+    private void borrowFromRight(BPlusTreeInternal<T> parent, int slot) {
+        BPlusTreeNode<T> node = parent.childAt(slot);
+        BPlusTreeNode<T> right = parent.childAt(slot + 1);
+        if (node instanceof BPlusTreeLeaf) {
+            node.keys[node.count] = right.keys[0];
+            removeAt(right.keys, right.count, 0);
+            parent.keys[slot] = right.keys[0];
+        } else {
+            BPlusTreeInternal<T> n = (BPlusTreeInternal<T>) node;
+            BPlusTreeInternal<T> r = (BPlusTreeInternal<T>) right;
+            n.keys[n.count] = parent.keys[slot];
+            n.children[n.count + 1] = r.children[0];
+            parent.keys[slot] = r.keys[0];
+            removeAt(r.keys, r.count, 0);
+            removeAt(r.children, r.count + 1, 0);
+        }
+        right.count--;
+        node.count++;
+    }
+
+    /**
+     * merge children[slot + 1] into children[slot], the separator between them leaves the parent
+     */
+    private void merge(BPlusTreeInternal<T> parent, int slot) {
+        BPlusTreeNode<T> left = parent.childAt(slot);
+        BPlusTreeNode<T> right = parent.childAt(slot + 1);
+        if (left instanceof BPlusTreeLeaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.count += right.count;
+            ((BPlusTreeLeaf<T>) left).next = ((BPlusTreeLeaf<T>) right).next;
+        } else {
+            BPlusTreeInternal<T> l = (BPlusTreeInternal<T>) left;
+            BPlusTreeInternal<T> r = (BPlusTreeInternal<T>) right;
+            //the separator comes down between the two halves
+            l.keys[l.count] = parent.keys[slot];
+            System.arraycopy(r.keys, 0, l.keys, l.count + 1, r.count);
+            System.arraycopy(r.children, 0, l.children, l.count + 1, r.count + 1);
+            l.count += r.count + 1;
+        }
+        removeAt(parent.keys, parent.count, slot);
+        removeAt(parent.children, parent.count + 1, slot + 1);
+        parent.count--;
+    }
+
+    //move keys[keep, count) of a full leaf to the empty leaf to
+    private static void moveKeys(BPlusTreeNode<?> from, int keep, BPlusTreeNode<?> to) {
+        int moved = from.count - keep;
+        System.arraycopy(from.keys, keep, to.keys, 0, moved);
+        Arrays.fill(from.keys, keep, from.count, null);
+        to.count = moved;
+        from.count = keep;
+    }
+
+    private static void insertAt(Object[] array, int length, int index, Object value) {
+        System.arraycopy(array, index, array, index + 1, length - index);
+        array[index] = value;
+    }
+
+    private static void removeAt(Object[] array, int length, int index) {
+        System.arraycopy(array, index + 1, array, index, length - index - 1);
+        array[length - 1] = null;
+    }
+
+    /**
+     * debug method, prints the keys of every node, one level per line
+     */
+    public void printTree() {
+        LinkedList<BPlusTreeNode<T>> queue = new LinkedList<BPlusTreeNode<T>>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            LinkedList<BPlusTreeNode<T>> queue2 = new LinkedList<BPlusTreeNode<T>>();
+            while (!queue.isEmpty()) {
+                BPlusTreeNode<T> n = queue.poll();
+                StringBuilder sb = new StringBuilder("[");
+                for (int i = 0; i < n.count; i++) {
+                    sb.append(i == 0 ? "" : " ").append(n.keys[i]);
+                }
+                System.out.print(sb.append("]\t"));
+                if (n instanceof BPlusTreeInternal) {
+                    for (int i = 0; i <= n.count; i++) {
+                        queue2.add(((BPlusTreeInternal<T>) n).childAt(i));
+                    }
+                }
+            }
+            queue = queue2;
+            System.out.println();
+        }
+    }
+
+    /**
+     * walks the leaf list from (leaf, index) until hi, null hi means to the end.
+     * fails fast on a structural change made other than through remove()
+     */
+    private class LeafIterator implements Iterator<T> {
+        private BPlusTreeLeaf<T> leaf;
+        private int index;
+        private final T hi;
+        private T lastReturned;
+        private int expectedModCount = modCount;
+
+        LeafIterator(BPlusTreeLeaf<T> leaf, int index, T hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return leaf != null && (hi == null || leaf.keyAt(index).compareTo(hi) < 0);
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = leaf.keyAt(index++);
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            //the leaves may be rebalanced, find the way back from the next value
+            removeNode(lastReturned);
+            T resume = lastReturned;
+            lastReturned = null;
+            expectedModCount = modCount;
+            BPlusTreeLeaf<T> l = findLeaf(resume);
+            int i = l.search(resume);
+            leaf = l;
+            index = i >= 0 ? i + 1 : -i - 1;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package tree;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * thread safe red black tree.
+ * writers take the exclusive lock of a {@link StampedLock};
+ * {@link #find(Object)} first descends without any lock under an optimistic stamp,
+ * and only when a writer got in between it retries, finally under the read lock.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class ConcurrentRBTree<T extends Comparable<T>> {
+    //optimistic attempts before falling back to the read lock
+    static final int OPTIMISTIC_RETRIES = 2;
+    //a red black tree of 2^63 nodes is at most 126 levels deep, a longer walk means a torn read
+    private static final int MAX_DEPTH = 128;
+    //returned by an optimistic descent that gave up
+    static final Object RETRY = new Object();
+
+    private final RBTree<T> tree;
+    private final StampedLock lock = new StampedLock();
+
+    public ConcurrentRBTree(){
+        this.tree = new RBTree<T>();
+    }
+
+    public ConcurrentRBTree(boolean overrideMode){
+        this.tree = new RBTree<T>(overrideMode);
+    }
+
+    /**
+     * number of tree number
+     * @return
+     */
+    public long getSize() {
+        return tree.getSize();
+    }
+
+    /**
+     * @see RBTree#addNode(Comparable)
+     * @param value
+     * @return
+     */
+    public T addNode(T value){
+        long stamp = lock.writeLock();
+        try {
+            return tree.addNode(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @see RBTree#removeNode(Comparable)
+     * @param value
+     * @return
+     */
+    public T removeNode(T value){
+        long stamp = lock.writeLock();
+        try {
+            return tree.removeNode(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @see RBTree#find(Comparable)
+     * @param value
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T find(T value){
+        for (int i = 0; i < OPTIMISTIC_RETRIES; i++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0L) {
+                //a writer holds the lock right now
+                continue;
+            }
+            Object found;
+            try {
+                found = optimisticFind(tree, value);
+            } catch (RuntimeException e) {
+                //links were read in the middle of a rotation
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+                continue;
+            }
+            if (lock.validate(stamp) && found != RETRY) {
+                return (T) found;
+            }
+        }
+
+        long stamp = lock.readLock();
+        try {
+            return tree.find(value);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * same descent as {@link RBTree#find(Comparable)}, but bounded,
+     * the result is only trusted after the stamp validates
+     */
+    static <T extends Comparable<T>> Object optimisticFind(RBTree<T> tree, T value) {
+        RBTreeNode<T> cur = tree.getRoot();
+        for (int depth = 0; cur != null; depth++) {
+            if (depth == MAX_DEPTH) {
+                return RETRY;
+            }
+            int cmp = cur.getValue().compareTo(value);
+            if (cmp < 0) {
+                cur = cur.getRight();
+            } else if (cmp > 0) {
+                cur = cur.getLeft();
+            } else {
+                return cur.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,299 @@
+package tree;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+class CountedRBTreeNode<T extends Comparable<T>> extends RBTreeNode<T> {
+    //occurrences of the value, at least 1 while linked
+    private long count = 1;
+
+    public CountedRBTreeNode(T value){super(value);}
+
+    long getCount() {
+        return count;
+    }
+    void setCount(long count) {
+        this.count = count;
+    }
+}
+
+/**
+ * multiset on a red black tree: one node per distinct value, holding how often the value occurs.
+ * adding a duplicate bumps the count of the node already there, nothing is allocated and
+ * the height stays bounded by the number of distinct values.
+ * the first value added is the one kept, equal values added later are only counted.
+ * <p>
+ * {@link #getSize()} and iteration see distinct values, {@link #getTotalSize()} counts every occurrence.
+ * {@link #removeNode(Comparable)} and the iterator's remove drop a value with all its occurrences,
+ * {@link #removeOne(Comparable)} drops one.
+ * union, intersect and difference work on the counts: sum, minimum and subtraction.
+ */
+public class CountedRBTree<T extends Comparable<T>> extends RBTree<T> {
+    //sum of all counts
+    private AtomicLong totalSize = new AtomicLong(0);
+
+    public CountedRBTree(){
+        super();
+    }
+
+    /**
+     * number of values, duplicates included
+     * @return
+     */
+    public long getTotalSize(){
+        return totalSize.get();
+    }
+
+    /**
+     * @param value
+     * @return occurrences of value, 0 if not exist
+     */
+    public long count(T value){
+        RBTreeNode<T> node = findNode(value);
+        return node == null ? 0 : ((CountedRBTreeNode<T>) node).getCount();
+    }
+
+    /**
+     * add one occurrence of value
+     * @param value
+     * @return occurrences of value after the add
+     */
+    public long add(T value){
+        return add(value, 1);
+    }
+
+    /**
+     * add n occurrences of value
+     * @param value
+     * @param n
+     * @return occurrences of value after the add
+     */
+    public long add(T value, long n){
+        if (n <= 0){
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        RBTreeNode<T> node = insert(value, n, null);
+        return node == null ? n : ((CountedRBTreeNode<T>) node).getCount();
+    }
+
+    /**
+     * remove one occurrence of value, the node goes when its last occurrence does
+     * @param value
+     * @return false if value not exist
+     */
+    public boolean removeOne(T value){
+        RBTreeNode<T> node = findNode(value);
+        if (node == null){
+            return false;
+        }
+        CountedRBTreeNode<T> counted = (CountedRBTreeNode<T>) node;
+        if (counted.getCount() == 1){
+            deleteNode(node);
+        }else{
+            counted.setCount(counted.getCount() - 1);
+            totalSize.decrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * add one occurrence of value
+     * @param value
+     * @return the value already in the tree, null if value is new
+     */
+    @Override
+    public T addNode(T value){
+        RBTreeNode<T> node = insert(value, 1, null);
+        return node == null ? null : node.getValue();
+    }
+
+    /**
+     * add node's occurrences, a node whose value exists is not linked, its count goes to the node there
+     * @param node
+     * @return the value already in the tree, null if node was linked
+     */
+    @Override
+    public T addNode(RBTreeNode<T> node){
+        if (!(node instanceof CountedRBTreeNode)){
+            throw new IllegalArgumentException("node must be a CountedRBTreeNode");
+        }
+        long n = ((CountedRBTreeNode<T>) node).getCount();
+        if (n <= 0){
+            throw new IllegalArgumentException("count must be positive: " + n);
+        }
+        RBTreeNode<T> existing = insert(node.getValue(), n, node);
+        return existing == null ? null : existing.getValue();
+    }
+
+    /**
+     * add one occurrence of every value, one insert each
+     * @param values
+     * @return number of values that were not in the tree yet
+     */
+    @Override
+    public long addAll(Collection<? extends T> values){
+        long added = 0;
+        for (T value : values){
+            if (insert(value, 1, null) == null){
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public void bulkLoad(Iterator<T> sorted, long size){
+        super.bulkLoad(sorted, size);
+        //every node is new, count 1
+        totalSize.set(size);
+    }
+
+    /**
+     * multiset union: the counts of a value in both trees add up, values only in other come with their count.
+     * other may be a plain RBTree, its values count once each. the first value added stays, as with add
+     * @param other must not change while the union runs
+     * @param pool
+     * @return number of values that were not in the tree yet
+     */
+    @Override
+    public long union(RBTree<T> other, ForkJoinPool pool){
+        if (other == this){
+            //every count doubles, no value is new
+            for (RBTreeNode<T> node = firstNode(); node != null; node = successor(node)){
+                CountedRBTreeNode<T> counted = (CountedRBTreeNode<T>) node;
+                counted.setCount(counted.getCount() * 2);
+            }
+            totalSize.set(totalSize.get() * 2);
+            return 0;
+        }
+        return super.union(other, pool);
+    }
+
+    /**
+     * multiset intersection: a value in both trees keeps the smaller count, every other value goes
+     * @param other must not change while the intersection runs
+     * @param pool
+     * @return number of values removed
+     */
+    @Override
+    public long intersect(RBTree<T> other, ForkJoinPool pool){
+        if (other == this){
+            return 0;
+        }
+        //only matched values survive, mergeMatch adds their counts back
+        totalSize.set(0);
+        return super.intersect(other, pool);
+    }
+
+    /**
+     * multiset difference: other's count of a value is taken off, the value goes when nothing is left
+     * @param other must not change while the difference runs
+     * @param pool
+     * @return number of values removed
+     */
+    @Override
+    public long difference(RBTree<T> other, ForkJoinPool pool){
+        long removed = super.difference(other, pool);
+        if (other == this){
+            totalSize.set(0);
+        }
+        return removed;
+    }
+
+    @Override
+    boolean mergeMatch(int op, RBTreeNode<T> node, RBTreeNode<T> other){
+        CountedRBTreeNode<T> counted = (CountedRBTreeNode<T>) node;
+        long count = counted.getCount();
+        long theirs = countOf(other);
+        if (op == UNION){
+            counted.setCount(count + theirs);
+            totalSize.addAndGet(theirs);
+            return true;
+        }
+        if (op == INTERSECT){
+            counted.setCount(Math.min(count, theirs));
+            totalSize.addAndGet(counted.getCount());
+            return true;
+        }
+        totalSize.addAndGet(-Math.min(count, theirs));
+        if (count <= theirs){
+            return false;
+        }
+        counted.setCount(count - theirs);
+        return true;
+    }
+
+    @Override
+    RBTreeNode<T> copyNode(RBTreeNode<T> other){
+        RBTreeNode<T> node = newNode(other.getValue());
+        long count = countOf(other);
+        ((CountedRBTreeNode<T>) node).setCount(count);
+        totalSize.addAndGet(count);
+        return node;
+    }
+
+    /**
+     * occurrences a node of any RBTree stands for, a plain node counts once
+     */
+    private static <T extends Comparable<T>> long countOf(RBTreeNode<T> node){
+        return node instanceof CountedRBTreeNode ? ((CountedRBTreeNode<T>) node).getCount() : 1;
+    }
+
+    /**
+     * one descent: bump the count of an equal node, or link node (a new one if null) carrying n
+     * @return the node already holding value, null if a node was linked
+     */
+    private RBTreeNode<T> insert(T value, long n, RBTreeNode<T> node){
+        RBTreeNode<T> top = getRoot();
+        RBTreeNode<T> x = top == null ? null : findParentNode(top, value);
+        int cmp = x == null ? 0 : x.getValue().compareTo(value);
+        if (x != null && cmp == 0){
+            CountedRBTreeNode<T> counted = (CountedRBTreeNode<T>) x;
+            counted.setCount(counted.getCount() + n);
+            totalSize.addAndGet(n);
+            return x;
+        }
+        if (node == null){
+            node = newNode(value);
+            ((CountedRBTreeNode<T>) node).setCount(n);
+        }
+        if (x == null){
+            super.addNode(node);
+        }else{
+            node.setLeft(null);
+            node.setRight(null);
+            node.setRed(true);
+            linkNode(node, x, cmp);
+        }
+        totalSize.addAndGet(n);
+        return null;
+    }
+
+    @Override
+    RBTreeNode<T> createNode(T value){
+        return new CountedRBTreeNode<T>(value);
+    }
+
+    @Override
+    void resetNode(RBTreeNode<T> node){
+        ((CountedRBTreeNode<T>) node).setCount(1);
+    }
+
+    /**
+     * every removal ends here, the node's occurrences go with it
+     * @param node
+     */
+    @Override
+    void deleteNode(RBTreeNode<T> node){
+        totalSize.addAndGet(-((CountedRBTreeNode<T>) node).getCount());
+        super.deleteNode(node);
+    }
+}
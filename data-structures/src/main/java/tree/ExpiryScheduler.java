@@ -0,0 +1,142 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * deadlines of many keys (cache entries, sessions, leases) in one RBTree ordered by (deadline, sequence),
+ * the sequence number keeps keys with equal deadlines apart and in scheduling order.
+ * a hash index maps every key to its tree node, so reschedule and cancel unlink that node directly
+ * (O(log n), no search), and {@link #pollExpired(long)} walks from the leftmost node
+ * and stops at the first deadline still ahead.
+ * a reschedule moves the same node and entry, it allocates nothing.
+ * <p>
+ * time is whatever unit the caller uses (System.nanoTime, millis, ticks), a deadline equal to now is due.
+ * not thread safe, one thread (or the caller's lock) drives schedule and poll.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class ExpiryScheduler<K> {
+    private final RBTree<Expiry<K>> tree = new RBTree<Expiry<K>>();
+    private final Map<K, RBTreeNode<Expiry<K>>> index = new HashMap<K, RBTreeNode<Expiry<K>>>();
+    private long sequence;
+
+    public long getSize() {
+        return tree.getSize();
+    }
+
+    /**
+     * schedule key to expire at deadline, replacing its current deadline if it has one
+     * @param key
+     * @param deadline
+     * @return true if key was not scheduled before
+     */
+    public boolean schedule(K key, long deadline) {
+        if (reschedule(key, deadline)) {
+            return false;
+        }
+        RBTreeNode<Expiry<K>> node = new RBTreeNode<Expiry<K>>(new Expiry<K>(key, deadline, sequence++));
+        tree.addNode(node);
+        index.put(key, node);
+        return true;
+    }
+
+    /**
+     * move a scheduled key to a new deadline
+     * @param key
+     * @param deadline
+     * @return false if key is not scheduled
+     */
+    public boolean reschedule(K key, long deadline) {
+        RBTreeNode<Expiry<K>> node = index.get(key);
+        if (node == null) {
+            return false;
+        }
+        tree.deleteNode(node);
+        //the entry is out of the tree, its sort key may change
+        Expiry<K> expiry = node.getValue();
+        expiry.deadline = deadline;
+        expiry.sequence = sequence++;
+        tree.addNode(node);
+        return true;
+    }
+
+    /**
+     * @param key
+     * @return false if key is not scheduled
+     */
+    public boolean cancel(K key) {
+        RBTreeNode<Expiry<K>> node = index.remove(key);
+        if (node == null) {
+            return false;
+        }
+        tree.deleteNode(node);
+        return true;
+    }
+
+    /**
+     * @param key
+     * @return the deadline of key, null if it is not scheduled
+     */
+    public Long getDeadline(K key) {
+        RBTreeNode<Expiry<K>> node = index.get(key);
+        return node == null ? null : node.getValue().deadline;
+    }
+
+    /**
+     * @return the earliest deadline, Long.MAX_VALUE if nothing is scheduled
+     */
+    public long nextDeadline() {
+        RBTreeNode<Expiry<K>> first = tree.firstNode();
+        return first == null ? Long.MAX_VALUE : first.getValue().deadline;
+    }
+
+    /**
+     * remove every key whose deadline is not after now
+     * @param now
+     * @return the expired keys, by deadline, keys with equal deadlines in scheduling order
+     */
+    public List<K> pollExpired(long now) {
+        List<K> expired = new ArrayList<K>();
+        Iterator<Expiry<K>> it = tree.iterator();
+        while (it.hasNext()) {
+            Expiry<K> expiry = it.next();
+            if (expiry.deadline > now) {
+                break;
+            }
+            //the iterator already holds the successor, unlinking this node does not move it
+            it.remove();
+            index.remove(expiry.key);
+            expired.add(expiry.key);
+        }
+        return expired;
+    }
+
+    /**
+     * tree entry, deadline and sequence only change while the node is out of the tree
+     */
+    private static final class Expiry<K> implements Comparable<Expiry<K>> {
+        final K key;
+        long deadline;
+        long sequence;
+
+        Expiry(K key, long deadline, long sequence) {
+            this.key = key;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Expiry<K> o) {
+            if (deadline != o.deadline) {
+                return deadline < o.deadline ? -1 : 1;
+            }
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package tree;
+
+/**
+ * {@link FrozenTree} for {@code long} keys: the keys sit in a {@code long[]} in Eytzinger order,
+ * so a lookup touches no object at all and the comparison compiles to a conditional move.
+ * built by {@link LongRBTree#freeze()} or {@link #fromSorted(long[])}.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class FrozenLongTree {
+    //keys[0] is unused
+    private final long[] keys;
+    private final int size;
+
+    private FrozenLongTree(long[] keys, int size) {
+        this.keys = keys;
+        this.size = size;
+    }
+
+    /**
+     * @param sorted keys in strictly ascending order
+     * @return
+     */
+    public static FrozenLongTree fromSorted(long[] sorted) {
+        FrozenTree.checkSize(sorted.length);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] >= sorted[i]) {
+                throw new IllegalArgumentException("keys are not in strictly ascending order: " + sorted[i - 1] + ", " + sorted[i]);
+            }
+        }
+        long[] keys = new long[sorted.length + 1];
+        fill(keys, 1, sorted, 0);
+        return new FrozenLongTree(keys, sorted.length);
+    }
+
+    /**
+     * in-order walk of the implicit tree
+     * @return index in sorted of the next key to place
+     */
+    private static int fill(long[] keys, int k, long[] sorted, int next) {
+        if (k >= keys.length) {
+            return next;
+        }
+        next = fill(keys, 2 * k, sorted, next);
+        keys[k] = sorted[next++];
+        return fill(keys, 2 * k + 1, sorted, next);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean contains(long key) {
+        int k = ceilingIndex(key);
+        return k != 0 && keys[k] == key;
+    }
+
+    /**
+     * @param key
+     * @return the smallest key &gt;= key, null if none
+     */
+    public Long ceiling(long key) {
+        int k = ceilingIndex(key);
+        return k == 0 ? null : keys[k];
+    }
+
+    /**
+     * @param key
+     * @return the largest key &lt;= key, null if none
+     */
+    public Long floor(long key) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (keys[k] <= key ? 1 : 0);
+        }
+        k >>>= Integer.numberOfTrailingZeros(k) + 1;
+        return k == 0 ? null : keys[k];
+    }
+
+    /**
+     * index of the smallest key &gt;= key, 0 if none, see {@link FrozenTree}
+     */
+    private int ceilingIndex(long key) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (keys[k] < key ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+}
@@ -0,0 +1,139 @@
+package tree;
+
+import java.util.Iterator;
+
+/**
+ * immutable search tree compiled into one array in Eytzinger (BFS) order:
+ * the root at index 1, the children of k at 2k and 2k+1.
+ * a lookup walks k = 2k + (keys[k] &lt; value) with no branch on the comparison and no pointer to chase,
+ * the first levels share a few cache lines that stay hot, and each key costs one array slot
+ * instead of a node object.
+ * the walk always runs the full height, the answer is recovered from the bits of k afterwards:
+ * the last left turn is the ceiling, the last right turn of the &lt;= walk the floor.
+ * <p>
+ * built by {@link RBTree#freeze()}, {@link AVLTree#freeze()} and {@link SearchTree#freeze()}.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class FrozenTree<T extends Comparable<T>> {
+    //2k+1 must not overflow an int
+    static final int MAX_SIZE = (1 << 30) - 1;
+
+    //keys[0] is unused
+    private final Object[] keys;
+    private final int size;
+
+    private FrozenTree(Object[] keys, int size) {
+        this.keys = keys;
+        this.size = size;
+    }
+
+    /**
+     * compile the first size values of sorted
+     * @param sorted values in strictly ascending order
+     * @param size number of values to take
+     * @return
+     */
+    public static <T extends Comparable<T>> FrozenTree<T> fromSorted(Iterator<T> sorted, long size) {
+        checkSize(size);
+        Object[] keys = new Object[(int) size + 1];
+        fill(keys, 1, new Builder<T>(sorted));
+        return new FrozenTree<T>(keys, (int) size);
+    }
+
+    static void checkSize(long size) {
+        if (size < 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be in [0, " + MAX_SIZE + "]: " + size);
+        }
+    }
+
+    /**
+     * in-order walk of the implicit tree, assigning the values in ascending order
+     */
+    private static <T extends Comparable<T>> void fill(Object[] keys, int k, Builder<T> builder) {
+        if (k >= keys.length) {
+            return;
+        }
+        fill(keys, 2 * k, builder);
+        keys[k] = builder.next();
+        fill(keys, 2 * k + 1, builder);
+    }
+
+    /**
+     * checks the order while values are taken
+     */
+    private static class Builder<T extends Comparable<T>> {
+        private final Iterator<T> sorted;
+        private T last;
+
+        Builder(Iterator<T> sorted) {
+            this.sorted = sorted;
+        }
+
+        T next() {
+            T value = sorted.next();
+            if (last != null && last.compareTo(value) >= 0) {
+                throw new IllegalArgumentException("values are not in strictly ascending order: " + last + ", " + value);
+            }
+            last = value;
+            return value;
+        }
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @param value
+     * @return the equal value, null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public T find(T value) {
+        int k = ceilingIndex(value);
+        return k != 0 && ((T) keys[k]).compareTo(value) == 0 ? (T) keys[k] : null;
+    }
+
+    public boolean contains(T value) {
+        return find(value) != null;
+    }
+
+    /**
+     * @param value
+     * @return the smallest value &gt;= value, null if none
+     */
+    @SuppressWarnings("unchecked")
+    public T ceiling(T value) {
+        return (T) keys[ceilingIndex(value)];
+    }
+
+    /**
+     * @param value
+     * @return the largest value &lt;= value, null if none
+     */
+    @SuppressWarnings("unchecked")
+    public T floor(T value) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (((T) keys[k]).compareTo(value) <= 0 ? 1 : 0);
+        }
+        //drop the left turns after the last right turn, and that turn itself
+        k >>>= Integer.numberOfTrailingZeros(k) + 1;
+        return (T) keys[k];
+    }
+
+    /**
+     * index of the smallest key &gt;= value, 0 (an empty slot) if none
+     */
+    @SuppressWarnings("unchecked")
+    private int ceilingIndex(T value) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (((T) keys[k]).compareTo(value) < 0 ? 1 : 0);
+        }
+        //drop the right turns after the last left turn, and that turn itself
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+}
@@ -0,0 +1,95 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * nodes in parallel primitive arrays on the heap, 21 bytes per node and no per-node object
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+class HeapRBNodeStore extends RBNodeStore {
+    private long[] keys;
+    private int[] lefts;
+    private int[] rights;
+    private int[] parents;
+    private boolean[] reds;
+
+    HeapRBNodeStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 2);
+        keys = new long[capacity];
+        lefts = new int[capacity];
+        rights = new int[capacity];
+        parents = new int[capacity];
+        reds = new boolean[capacity];
+    }
+
+    @Override
+    int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    void grow() {
+        int capacity = keys.length + (keys.length >> 1);
+        if (capacity < 0) {
+            throw new IllegalStateException("node store is full");
+        }
+        keys = Arrays.copyOf(keys, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        reds = Arrays.copyOf(reds, capacity);
+    }
+
+    @Override
+    long getKey(int node) {
+        return keys[node];
+    }
+
+    @Override
+    void setKey(int node, long key) {
+        keys[node] = key;
+    }
+
+    @Override
+    int getLeft(int node) {
+        return lefts[node];
+    }
+
+    @Override
+    void setLeft(int node, int left) {
+        lefts[node] = left;
+    }
+
+    @Override
+    int getRight(int node) {
+        return rights[node];
+    }
+
+    @Override
+    void setRight(int node, int right) {
+        rights[node] = right;
+    }
+
+    @Override
+    int getParent(int node) {
+        return parents[node];
+    }
+
+    @Override
+    void setParent(int node, int parent) {
+        parents[node] = parent;
+    }
+
+    @Override
+    boolean isRed(int node) {
+        return reds[node];
+    }
+
+    @Override
+    void setRed(int node, boolean red) {
+        reds[node] = red;
+    }
+}
@@ -0,0 +1,384 @@
+package tree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * red black tree specialized for {@code int} keys.
+ * same insert and fix logic as {@link RBTree}, but the key lives in the node
+ * and is compared with plain {@code <}, no boxing and no {@code compareTo} call.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+class IntRBTreeNode {
+    private int key;
+    private IntRBTreeNode parent;
+    private IntRBTreeNode left;
+    private IntRBTreeNode right;
+    private boolean red;
+
+    public IntRBTreeNode(){}
+    public IntRBTreeNode(int key){this.key=key;}
+
+    public int getKey() {
+        return key;
+    }
+    IntRBTreeNode getLeft() {
+        return left;
+    }
+    void setLeft(IntRBTreeNode left) {
+        this.left = left;
+    }
+    IntRBTreeNode getRight() {
+        return right;
+    }
+    void setRight(IntRBTreeNode right) {
+        this.right = right;
+    }
+    IntRBTreeNode getParent() {
+        return parent;
+    }
+    void setParent(IntRBTreeNode parent) {
+        this.parent = parent;
+    }
+
+    boolean isRed() {
+        return red;
+    }
+    boolean isBlack(){
+        return !red;
+    }
+
+    void setRed(boolean red) {
+        this.red = red;
+    }
+
+    void makeRed(){
+        this.red=true;
+    }
+    void makeBlack(){
+        this.red=false;
+    }
+    @Override
+    public String toString(){
+        return Integer.toString(key);
+    }
+}
+
+public class IntRBTree {
+    //virtual head node
+    private IntRBTreeNode root;
+    private AtomicLong size = new AtomicLong(0);
+
+    public IntRBTree(){
+        this.root = new IntRBTreeNode();
+    }
+
+    private void setParent(IntRBTreeNode node,IntRBTreeNode parent){
+        if(node!=null){
+            node.setParent(parent);
+            if(parent==root){
+                node.setParent(null);
+            }
+        }
+    }
+
+    /**
+     * number of tree number
+     * @return
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * get the root node
+     * @return
+     */
+    public IntRBTreeNode getRoot(){
+        return root.getLeft();
+    }
+
+    /**
+     * whether the key exists in this tree
+     * @param key
+     * @return
+     */
+    public boolean contains(int key){
+        IntRBTreeNode dataRoot = getRoot();
+        while(dataRoot!=null){
+            int cur = dataRoot.getKey();
+            if(cur<key){
+                dataRoot = dataRoot.getRight();
+            }else if(cur>key){
+                dataRoot = dataRoot.getLeft();
+            }else{
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * add key to a new node
+     * @param key
+     * @return true if the key was added, false if it already exists
+     */
+    public boolean addNode(int key){
+        //Determine whether the header node is empty
+        if (root.getLeft() == null){
+            IntRBTreeNode node = new IntRBTreeNode(key);
+            //node become root, root is black
+            root.setLeft(node);
+            node.makeBlack();
+        }else {
+            //find insert point
+            IntRBTreeNode x = findParentNode(key);
+            int cur = x.getKey();
+
+            //key exists,ignore it
+            if(cur==key){
+                return false;
+            }
+
+            IntRBTreeNode node = new IntRBTreeNode(key);
+            node.makeRed();
+            //x become node's parent
+            setParent(node, x);
+
+            if(cur>key){
+                x.setLeft(node);
+            }else{
+                x.setRight(node);
+            }
+
+            //Keep RBTree's identity.
+            fixInsert(node);
+        }
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * red black tree insert fix, same cases as {@link RBTree}
+     * @param node is new node
+     */
+    private void fixInsert(IntRBTreeNode node) {
+        IntRBTreeNode parent = node.getParent();
+
+        //whether need to fix
+        while (parent != null && parent.isRed()) {
+            //get uncle
+            IntRBTreeNode uncle = getUncle(node);
+
+            if(uncle == null || uncle.isBlack()) {
+                //uncle is black, have 4 cases
+                IntRBTreeNode ancestor = parent.getParent();
+                if (ancestor.getLeft() == parent){
+                    boolean isRight = node == parent.getRight();
+                    if (isRight) {
+                        rotateLeft(parent);
+                    }
+                    rotateRight(ancestor);
+
+                    if (isRight) {
+                        //change the color of current and ancestor
+                        node.makeBlack();
+
+                        //end loop
+                        parent = null;
+                    }else{
+                        //end loop
+                        parent.makeBlack();
+                    }
+
+                    ancestor.makeRed();
+                }else{
+                    boolean isLeft = node == parent.getLeft();
+                    if (isLeft) {
+                        rotateRight(parent);
+                    }
+                    rotateLeft(ancestor);
+
+                    if (isLeft) {
+                        node.makeBlack();
+
+                        //end loop
+                        parent = null;
+                    }else {
+                        //end loop
+                        parent.makeBlack();
+                    }
+
+                    ancestor.makeRed();
+                }
+            }else{
+                //change the color of parent、uncle with ancestor
+                parent.makeBlack();
+                uncle.makeBlack();
+                IntRBTreeNode ancestor = parent.getParent();
+                ancestor.makeRed();
+
+                //ancestor as new insert node
+                node = parent.getParent();
+                parent = node.getParent();
+            }
+        }
+
+        //make sure root is black
+        IntRBTreeNode root = getRoot();
+        root.makeBlack();
+        setParent(root, null);
+    }
+
+    /**
+     * rotate right
+     * @param node
+     */
+    private void rotateRight(IntRBTreeNode node) {
+        //get left
+        IntRBTreeNode left = node.getLeft();
+        if(left==null){
+            throw new java.lang.IllegalStateException("left node is null");
+        }
+        //get parent
+        IntRBTreeNode parent = node.getParent();
+
+        //leftRight move to node's left
+        IntRBTreeNode leftRight = left.getRight();
+        node.setLeft(leftRight);
+        setParent(leftRight, node);
+
+        //node move to leftRight
+        left.setRight(node);
+        setParent(node, left);
+
+        //change left's parent
+        if(parent == null) {
+            root.setLeft(left);
+        }else {
+            if (parent.getLeft() == node){
+                parent.setLeft(left);
+            }else {
+                parent.setRight(left);
+            }
+        }
+        setParent(left, parent);
+    }
+
+    /**
+     * rotate left
+     * @param node
+     */
+    private void rotateLeft(IntRBTreeNode node) {
+        //get right
+        IntRBTreeNode right = node.getRight();
+        if(right==null){
+            throw new java.lang.IllegalStateException("right node is null");
+        }
+
+        //get parent
+        IntRBTreeNode parent = node.getParent();
+
+        //rightLeft move to node's right
+        IntRBTreeNode rightLeft = right.getLeft();
+        node.setRight(rightLeft);
+        setParent(rightLeft, node);
+
+        //node move to rightLeft
+        right.setLeft(node);
+        setParent(node, right);
+
+        //change left's parent
+        if (parent == null){
+            root.setLeft(right);
+        }else{
+            if (parent.getLeft() == node){
+                parent.setLeft(right);
+            }else{
+                parent.setRight(right);
+            }
+        }
+        setParent(right, parent);
+    }
+
+    /**
+     * get uncle node
+     * @param node
+     * @return
+     */
+    private IntRBTreeNode getUncle(IntRBTreeNode node) {
+        IntRBTreeNode parent = node.getParent();
+        IntRBTreeNode ancestor = parent.getParent();
+
+        if (ancestor == null){
+            return null;
+        }
+
+        if (parent == ancestor.getLeft()){
+            return ancestor.getRight();
+        }else {
+            return ancestor.getLeft();
+        }
+    }
+
+    /**
+     * find the parent node to hold key ,if parent key equals key return parent.
+     * be used to find insert position
+     * @param key
+     * @return
+     */
+    private IntRBTreeNode findParentNode(int key) {
+        //get root node
+        IntRBTreeNode parent = getRoot();
+        IntRBTreeNode cur = parent;
+        while (cur != null){
+            int k = cur.getKey();
+            if (k == key){
+                //the same key, return it
+                return cur;
+            }else if (k < key){
+                //Greater than, right
+                parent = cur;
+                cur = cur.getRight();
+            }else {
+                //Less than, left
+                parent = cur;
+                cur = cur.getLeft();
+            }
+        }
+
+        return parent;
+    }
+
+    /**
+     * debug method,it used print the given node and its children nodes,
+     * every layer output in one line
+     * @param root
+     */
+    public void printTree(IntRBTreeNode root){
+        java.util.LinkedList<IntRBTreeNode> queue =new java.util.LinkedList<IntRBTreeNode>();
+        if(root==null){
+            return ;
+        }
+        queue.add(root);
+
+        while(!queue.isEmpty()){
+            java.util.LinkedList<IntRBTreeNode> next =new java.util.LinkedList<IntRBTreeNode>();
+            while(!queue.isEmpty()){
+                IntRBTreeNode n = queue.poll();
+                System.out.print(n+"("+(n.isRed()?"R":"B")+")"+"\t");
+                if(n.getLeft()!=null){
+                    next.add(n.getLeft());
+                }
+                if(n.getRight()!=null){
+                    next.add(n.getRight());
+                }
+            }
+            queue = next;
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package tree;
+
+/**
+ * closed interval [start, end], ordered by start, then end.
+ * equal intervals are one value to a tree, a subclass that carries an id can break the tie in compareTo.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class Interval<T extends Comparable<T>> implements Comparable<Interval<T>> {
+    private final T start;
+    private final T end;
+
+    public Interval(T start, T end) {
+        if (start.compareTo(end) > 0) {
+            throw new IllegalArgumentException("start is after end: [" + start + ", " + end + "]");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    public T getStart() {
+        return start;
+    }
+
+    public T getEnd() {
+        return end;
+    }
+
+    /**
+     * @param a
+     * @param b
+     * @return whether this interval shares a point with [a, b]
+     */
+    public boolean overlaps(T a, T b) {
+        return start.compareTo(b) <= 0 && end.compareTo(a) >= 0;
+    }
+
+    @Override
+    public int compareTo(Interval<T> o) {
+        int cmp = start.compareTo(o.start);
+        return cmp != 0 ? cmp : end.compareTo(o.end);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Interval<?> other = (Interval<?>) o;
+        return start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start.hashCode() + end.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + "]";
+    }
+}
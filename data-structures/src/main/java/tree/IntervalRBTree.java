@@ -0,0 +1,152 @@
+package tree;
+
+import java.util.function.Consumer;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+class IntervalRBTreeNode<T extends Comparable<T>> extends RBTreeNode<Interval<T>> {
+    //largest end in the subtree rooted here, this node included
+    private T maxEnd;
+
+    public IntervalRBTreeNode(Interval<T> value){
+        super(value);
+        this.maxEnd = value.getEnd();
+    }
+
+    T getMaxEnd() {
+        return maxEnd;
+    }
+    void setMaxEnd(T maxEnd) {
+        this.maxEnd = maxEnd;
+    }
+}
+
+/**
+ * interval tree: a red black tree of intervals ordered by start, whose nodes also keep
+ * the largest end in their subtree. the rotations and the insert/remove paths keep it up to date
+ * through the same hooks as {@link OrderStatisticRBTree}.
+ * an overlap query skips every subtree whose largest end is before the query
+ * and everything right of the first start after it, so it visits O(min(n, (k + 1) log n)) nodes
+ * for k results, close to O(log n + k) when the results lie together.
+ * results are handed to a callback in start order, no list is built.
+ */
+public class IntervalRBTree<T extends Comparable<T>> extends RBTree<Interval<T>> {
+
+    public IntervalRBTree(){
+        super();
+    }
+
+    public IntervalRBTree(boolean overrideMode){
+        super(overrideMode);
+    }
+
+    /**
+     * only nodes that carry a max end can be added
+     * @param node
+     * @return
+     */
+    @Override
+    public Interval<T> addNode(RBTreeNode<Interval<T>> node){
+        if (!(node instanceof IntervalRBTreeNode)){
+            throw new IllegalArgumentException("node must be an IntervalRBTreeNode");
+        }
+        return super.addNode(node);
+    }
+
+    /**
+     * pass every interval sharing a point with [a, b] to action, in start order
+     * @param a
+     * @param b
+     * @param action
+     */
+    public void overlapping(T a, T b, Consumer<? super Interval<T>> action){
+        if (a.compareTo(b) > 0){
+            throw new IllegalArgumentException("a is after b: [" + a + ", " + b + "]");
+        }
+        overlapping(getRoot(), a, b, action);
+    }
+
+    /**
+     * pass every interval containing x to action, in start order
+     * @param x
+     * @param action
+     */
+    public void stabbing(T x, Consumer<? super Interval<T>> action){
+        overlapping(getRoot(), x, x, action);
+    }
+
+    /**
+     * @param a
+     * @param b
+     * @return whether any interval shares a point with [a, b], O(log n)
+     */
+    public boolean overlapsAny(T a, T b){
+        //go left whenever the left subtree reaches a: if nothing there overlaps, nothing on the right does either
+        RBTreeNode<Interval<T>> cur = getRoot();
+        while (cur != null){
+            if (cur.getValue().overlaps(a, b)){
+                return true;
+            }
+            RBTreeNode<Interval<T>> left = cur.getLeft();
+            if (left != null && maxEnd(left).compareTo(a) >= 0){
+                cur = left;
+            }else{
+                cur = cur.getRight();
+            }
+        }
+        return false;
+    }
+
+    private void overlapping(RBTreeNode<Interval<T>> node, T a, T b, Consumer<? super Interval<T>> action){
+        //in-order, recursion is bounded by the height
+        while (node != null && maxEnd(node).compareTo(a) >= 0){
+            overlapping(node.getLeft(), a, b, action);
+            Interval<T> interval = node.getValue();
+            if (interval.getStart().compareTo(b) > 0){
+                //this node and its right subtree start after b
+                return;
+            }
+            if (interval.getEnd().compareTo(a) >= 0){
+                action.accept(interval);
+            }
+            node = node.getRight();
+        }
+    }
+
+    @Override
+    RBTreeNode<Interval<T>> createNode(Interval<T> value){
+        return new IntervalRBTreeNode<T>(value);
+    }
+
+    @Override
+    void resetNode(RBTreeNode<Interval<T>> node){
+        ((IntervalRBTreeNode<T>) node).setMaxEnd(node.getValue().getEnd());
+    }
+
+    @Override
+    void updateNode(RBTreeNode<Interval<T>> node){
+        T max = node.getValue().getEnd();
+        if (node.getLeft() != null && maxEnd(node.getLeft()).compareTo(max) > 0){
+            max = maxEnd(node.getLeft());
+        }
+        if (node.getRight() != null && maxEnd(node.getRight()).compareTo(max) > 0){
+            max = maxEnd(node.getRight());
+        }
+        ((IntervalRBTreeNode<T>) node).setMaxEnd(max);
+    }
+
+    @Override
+    void updatePath(RBTreeNode<Interval<T>> node){
+        for (; node != null; node = node.getParent()){
+            updateNode(node);
+        }
+    }
+
+    private static <T extends Comparable<T>> T maxEnd(RBTreeNode<Interval<T>> node){
+        return ((IntervalRBTreeNode<T>) node).getMaxEnd();
+    }
+}
@@ -0,0 +1,317 @@
+package tree;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+//leaf of the lock-free tree, or the routing key of an internal node.
+//infinity orders the two sentinel keys after every real key: 0 real key, 1 is ∞1, 2 is ∞2
+class LockFreeNode<T extends Comparable<T>> {
+    final T value;
+    final int infinity;
+
+    LockFreeNode(T value, int infinity) {
+        this.value = value;
+        this.infinity = infinity;
+    }
+
+    boolean isLeaf() {
+        return true;
+    }
+
+    /**
+     * order of value against this node's key
+     */
+    int compareTo(T value) {
+        return infinity > 0 ? -1 : value.compareTo(this.value);
+    }
+
+    /**
+     * order of node against this node's key
+     */
+    int compareTo(LockFreeNode<T> node) {
+        if (node.infinity != infinity) {
+            return node.infinity - infinity;
+        }
+        return infinity > 0 ? 0 : node.value.compareTo(value);
+    }
+}
+
+//internal node, child links and the update word are only changed by CAS
+class LockFreeInternalNode<T extends Comparable<T>> extends LockFreeNode<T> {
+    volatile LockFreeNode<T> left;
+    volatile LockFreeNode<T> right;
+    volatile LockFreeUpdate update = LockFreeUpdate.CLEAN_UPDATE;
+
+    LockFreeInternalNode(T value, int infinity, LockFreeNode<T> left, LockFreeNode<T> right) {
+        super(value, infinity);
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    boolean isLeaf() {
+        return false;
+    }
+}
+
+//immutable (state, info) pair, a node's pending operation
+class LockFreeUpdate {
+    static final int CLEAN = 0;
+    static final int IFLAG = 1;
+    static final int DFLAG = 2;
+    static final int MARK = 3;
+    static final LockFreeUpdate CLEAN_UPDATE = new LockFreeUpdate(CLEAN, null);
+
+    final int state;
+    final Object info;
+
+    LockFreeUpdate(int state, Object info) {
+        this.state = state;
+        this.info = info;
+    }
+}
+
+/**
+ * non-blocking external binary search tree (Ellen, Fatourou, Ruppert, van Breugel, PODC 2010).
+ * values live in the leaves, internal nodes only route.
+ * an insert flags the parent, a remove flags the grandparent and marks the parent,
+ * any thread that runs into a flag finishes that operation before retrying its own,
+ * so no thread ever waits for another one.
+ */
+public class LockFreeSearchTree<T extends Comparable<T>> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<LockFreeInternalNode, LockFreeNode> LEFT =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeInternalNode.class, LockFreeNode.class, "left");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<LockFreeInternalNode, LockFreeNode> RIGHT =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeInternalNode.class, LockFreeNode.class, "right");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<LockFreeInternalNode, LockFreeUpdate> UPDATE =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeInternalNode.class, LockFreeUpdate.class, "update");
+
+    private final LockFreeInternalNode<T> root;
+    //LongAdder instead of AtomicLong, a shared counter would be the one contended word
+    private final LongAdder size = new LongAdder();
+
+    public LockFreeSearchTree() {
+        this.root = new LockFreeInternalNode<T>(null, 2,
+                new LockFreeNode<T>(null, 1), new LockFreeNode<T>(null, 2));
+    }
+
+    public long getSize() {
+        return size.sum();
+    }
+
+    /**
+     * find the value equal to the given one, null if absent
+     * @param value
+     * @return
+     */
+    public T find(T value) {
+        LockFreeNode<T> l = root;
+        while (!l.isLeaf()) {
+            LockFreeInternalNode<T> p = (LockFreeInternalNode<T>) l;
+            l = p.compareTo(value) < 0 ? p.left : p.right;
+        }
+        return l.compareTo(value) == 0 ? l.value : null;
+    }
+
+    /**
+     * add a value, lock-free
+     * @param value
+     * @return the existing equal value if present, otherwise value
+     */
+    public T addNode(T value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        Search<T> s = new Search<T>();
+        while (true) {
+            search(value, s);
+            LockFreeNode<T> l = s.l;
+            if (l.compareTo(value) == 0) {
+                return l.value;
+            }
+            if (s.pupdate.state != LockFreeUpdate.CLEAN) {
+                help(s.pupdate);
+                continue;
+            }
+
+            //replace leaf l by an internal node over the new leaf and a copy of l
+            LockFreeNode<T> leaf = new LockFreeNode<T>(value, 0);
+            LockFreeNode<T> sibling = new LockFreeNode<T>(l.value, l.infinity);
+            LockFreeInternalNode<T> internal = l.compareTo(value) < 0
+                    ? new LockFreeInternalNode<T>(l.value, l.infinity, leaf, sibling)
+                    : new LockFreeInternalNode<T>(value, 0, sibling, leaf);
+            InsertInfo<T> op = new InsertInfo<T>(s.p, l, internal);
+            if (UPDATE.compareAndSet(s.p, s.pupdate, new LockFreeUpdate(LockFreeUpdate.IFLAG, op))) {
+                helpInsert(op);
+                size.increment();
+                return value;
+            }
+            help(s.p.update);
+        }
+    }
+
+    /**
+     * remove a value, lock-free
+     * @param value
+     * @return true if this call removed the value, false if it was absent
+     */
+    public boolean removeNode(T value) {
+        Search<T> s = new Search<T>();
+        while (true) {
+            search(value, s);
+            if (s.l.compareTo(value) != 0) {
+                return false;
+            }
+            if (s.gpupdate.state != LockFreeUpdate.CLEAN) {
+                help(s.gpupdate);
+                continue;
+            }
+            if (s.pupdate.state != LockFreeUpdate.CLEAN) {
+                help(s.pupdate);
+                continue;
+            }
+
+            DeleteInfo<T> op = new DeleteInfo<T>(s.gp, s.p, s.l, s.pupdate);
+            if (UPDATE.compareAndSet(s.gp, s.gpupdate, new LockFreeUpdate(LockFreeUpdate.DFLAG, op))) {
+                if (helpDelete(op)) {
+                    size.decrement();
+                    return true;
+                }
+            } else {
+                help(s.gp.update);
+            }
+        }
+    }
+
+    /**
+     * walk to the leaf where value is or would be, remembering parent, grandparent
+     * and the update words read on the way down
+     */
+    private void search(T value, Search<T> s) {
+        LockFreeInternalNode<T> gp = null;
+        LockFreeInternalNode<T> p = null;
+        LockFreeUpdate gpupdate = null;
+        LockFreeUpdate pupdate = null;
+        LockFreeNode<T> l = root;
+        while (!l.isLeaf()) {
+            gp = p;
+            p = (LockFreeInternalNode<T>) l;
+            gpupdate = pupdate;
+            pupdate = p.update;
+            l = p.compareTo(value) < 0 ? p.left : p.right;
+        }
+        s.gp = gp;
+        s.p = p;
+        s.l = l;
+        s.gpupdate = gpupdate;
+        s.pupdate = pupdate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void help(LockFreeUpdate u) {
+        switch (u.state) {
+            case LockFreeUpdate.IFLAG:
+                helpInsert((InsertInfo<T>) u.info);
+                break;
+            case LockFreeUpdate.MARK:
+                helpMarked((DeleteInfo<T>) u.info);
+                break;
+            case LockFreeUpdate.DFLAG:
+                helpDelete((DeleteInfo<T>) u.info);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void helpInsert(InsertInfo<T> op) {
+        casChild(op.p, op.l, op.internal);
+        clear(op.p, LockFreeUpdate.IFLAG, op);
+    }
+
+    /**
+     * mark the parent, then unlink it; if the parent was taken by someone else, back off
+     * @return whether the remove went through
+     */
+    private boolean helpDelete(DeleteInfo<T> op) {
+        UPDATE.compareAndSet(op.p, op.pupdate, new LockFreeUpdate(LockFreeUpdate.MARK, op));
+        LockFreeUpdate u = op.p.update;
+        if (u.state == LockFreeUpdate.MARK && u.info == op) {
+            helpMarked(op);
+            return true;
+        }
+        help(u);
+        clear(op.gp, LockFreeUpdate.DFLAG, op);
+        return false;
+    }
+
+    private void helpMarked(DeleteInfo<T> op) {
+        LockFreeNode<T> other = op.p.right == op.l ? op.p.left : op.p.right;
+        casChild(op.gp, op.p, other);
+        clear(op.gp, LockFreeUpdate.DFLAG, op);
+    }
+
+    /**
+     * swing parent's child pointer from old to node, the side is decided by node's key
+     */
+    private void casChild(LockFreeInternalNode<T> parent, LockFreeNode<T> old, LockFreeNode<T> node) {
+        if (parent.compareTo(node) < 0) {
+            LEFT.compareAndSet(parent, old, node);
+        } else {
+            RIGHT.compareAndSet(parent, old, node);
+        }
+    }
+
+    /**
+     * unflag node if it is still flagged for op, a flag is never set twice so this is ABA free
+     */
+    private void clear(LockFreeInternalNode<T> node, int state, Object op) {
+        LockFreeUpdate u = node.update;
+        if (u.state == state && u.info == op) {
+            UPDATE.compareAndSet(node, u, new LockFreeUpdate(LockFreeUpdate.CLEAN, op));
+        }
+    }
+
+    private static final class Search<T extends Comparable<T>> {
+        LockFreeInternalNode<T> gp;
+        LockFreeInternalNode<T> p;
+        LockFreeNode<T> l;
+        LockFreeUpdate gpupdate;
+        LockFreeUpdate pupdate;
+    }
+
+    private static final class InsertInfo<T extends Comparable<T>> {
+        final LockFreeInternalNode<T> p;
+        final LockFreeNode<T> l;
+        final LockFreeInternalNode<T> internal;
+
+        InsertInfo(LockFreeInternalNode<T> p, LockFreeNode<T> l, LockFreeInternalNode<T> internal) {
+            this.p = p;
+            this.l = l;
+            this.internal = internal;
+        }
+    }
+
+    private static final class DeleteInfo<T extends Comparable<T>> {
+        final LockFreeInternalNode<T> gp;
+        final LockFreeInternalNode<T> p;
+        final LockFreeNode<T> l;
+        final LockFreeUpdate pupdate;
+
+        DeleteInfo(LockFreeInternalNode<T> gp, LockFreeInternalNode<T> p, LockFreeNode<T> l, LockFreeUpdate pupdate) {
+            this.gp = gp;
+            this.p = p;
+            this.l = l;
+            this.pupdate = pupdate;
+        }
+    }
+}
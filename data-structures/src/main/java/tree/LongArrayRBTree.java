@@ -0,0 +1,462 @@
+package tree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static tree.RBNodeStore.NIL;
+
+/**
+ * red black tree of {@code long} keys whose nodes are int indices into a {@link RBNodeStore}.
+ * the nodes sit in parallel primitive arrays on the heap or in one off-heap buffer,
+ * so a large tree is a handful of objects instead of one object per entry.
+ * removed nodes go to the store's free-list and are reused by later inserts.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class LongArrayRBTree {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final RBNodeStore store;
+    private int root = NIL;
+    private AtomicLong size = new AtomicLong(0);
+
+    public LongArrayRBTree(){
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * @param initialCapacity number of nodes to reserve up front
+     * @param offHeap keep the nodes in a direct buffer outside the java heap
+     */
+    public LongArrayRBTree(int initialCapacity, boolean offHeap){
+        //slot 0 is the nil node
+        this.store = offHeap ? new OffHeapRBNodeStore(initialCapacity + 1)
+                : new HeapRBNodeStore(initialCapacity + 1);
+    }
+
+    /**
+     * number of tree number
+     * @return
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * remove every key, node storage is kept for reuse
+     */
+    public void clear() {
+        store.clear();
+        root = NIL;
+        size.set(0);
+    }
+
+    /**
+     * whether the key exists in this tree
+     * @param key
+     * @return
+     */
+    public boolean contains(long key){
+        return findNode(key) != NIL;
+    }
+
+    /**
+     * add key to a new node
+     * @param key
+     * @return true if the key was added, false if it already exists
+     */
+    public boolean addNode(long key){
+        //Determine whether the tree is empty
+        if (root == NIL){
+            //node become root, root is black
+            root = store.allocate(key);
+        }else {
+            //find insert point
+            int x = findParentNode(key);
+            long cur = store.getKey(x);
+
+            //key exists,ignore it
+            if(cur==key){
+                return false;
+            }
+
+            int node = store.allocate(key);
+            store.setRed(node, true);
+            //x become node's parent
+            store.setParent(node, x);
+
+            if(cur>key){
+                store.setLeft(x, node);
+            }else{
+                store.setRight(x, node);
+            }
+
+            //Keep RBTree's identity.
+            fixInsert(node);
+        }
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * remove key, the node goes back to the free-list
+     * @param key
+     * @return true if the key was removed
+     */
+    public boolean removeNode(long key){
+        int node = findNode(key);
+        if (node == NIL) {
+            return false;
+        }
+
+        //y is the node actually unlinked, x takes its place
+        int y = node;
+        boolean removedRed = store.isRed(y);
+        int x;
+        if (store.getLeft(node) == NIL) {
+            x = store.getRight(node);
+            transplant(node, x);
+        } else if (store.getRight(node) == NIL) {
+            x = store.getLeft(node);
+            transplant(node, x);
+        } else {
+            //two children, successor takes node's place
+            y = minimum(store.getRight(node));
+            removedRed = store.isRed(y);
+            x = store.getRight(y);
+            if (store.getParent(y) == node) {
+                //x may be nil, its parent is still needed by fixRemove
+                store.setParent(x, y);
+            } else {
+                transplant(y, x);
+                store.setRight(y, store.getRight(node));
+                store.setParent(store.getRight(y), y);
+            }
+            transplant(node, y);
+            store.setLeft(y, store.getLeft(node));
+            store.setParent(store.getLeft(y), y);
+            store.setRed(y, store.isRed(node));
+        }
+
+        //removing a black node breaks the black height
+        if (!removedRed) {
+            fixRemove(x);
+        }
+        store.setParent(NIL, NIL);
+        store.release(node);
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * red black tree insert fix, same cases as {@link RBTree}
+     * @param node is new node
+     */
+    private void fixInsert(int node) {
+        int parent = store.getParent(node);
+
+        //whether need to fix
+        while (parent != NIL && store.isRed(parent)) {
+            //get uncle
+            int uncle = getUncle(node);
+
+            if(uncle == NIL || !store.isRed(uncle)) {
+                //uncle is black, have 4 cases
+                int ancestor = store.getParent(parent);
+                if (store.getLeft(ancestor) == parent){
+                    boolean isRight = node == store.getRight(parent);
+                    if (isRight) {
+                        rotateLeft(parent);
+                    }
+                    rotateRight(ancestor);
+
+                    if (isRight) {
+                        //change the color of current and ancestor
+                        store.setRed(node, false);
+
+                        //end loop
+                        parent = NIL;
+                    }else{
+                        //end loop
+                        store.setRed(parent, false);
+                    }
+
+                    store.setRed(ancestor, true);
+                }else{
+                    boolean isLeft = node == store.getLeft(parent);
+                    if (isLeft) {
+                        rotateRight(parent);
+                    }
+                    rotateLeft(ancestor);
+
+                    if (isLeft) {
+                        store.setRed(node, false);
+
+                        //end loop
+                        parent = NIL;
+                    }else {
+                        //end loop
+                        store.setRed(parent, false);
+                    }
+
+                    store.setRed(ancestor, true);
+                }
+            }else{
+                //change the color of parent、uncle with ancestor
+                store.setRed(parent, false);
+                store.setRed(uncle, false);
+                int ancestor = store.getParent(parent);
+                store.setRed(ancestor, true);
+
+                //ancestor as new insert node
+                node = ancestor;
+                parent = store.getParent(node);
+            }
+        }
+
+        //make sure root is black
+        store.setRed(root, false);
+    }
+
+    /**
+     * red black tree remove fix, x carries an extra black.
+     * sibling w is red: rotate it up so the sibling becomes black.
+     * w's children are both black: make w red and push the extra black up to the parent.
+     * w's far child is black: rotate w so the far child becomes red.
+     * w's far child is red: rotate the parent, recolor, and the extra black is gone.
+     * @param x
+     */
+    private void fixRemove(int x) {
+        while (x != root && !store.isRed(x)) {
+            int parent = store.getParent(x);
+            if (x == store.getLeft(parent)) {
+                int w = store.getRight(parent);
+                if (store.isRed(w)) {
+                    store.setRed(w, false);
+                    store.setRed(parent, true);
+                    rotateLeft(parent);
+                    w = store.getRight(parent);
+                }
+                if (!store.isRed(store.getLeft(w)) && !store.isRed(store.getRight(w))) {
+                    store.setRed(w, true);
+                    x = parent;
+                } else {
+                    if (!store.isRed(store.getRight(w))) {
+                        store.setRed(store.getLeft(w), false);
+                        store.setRed(w, true);
+                        rotateRight(w);
+                        w = store.getRight(parent);
+                    }
+                    store.setRed(w, store.isRed(parent));
+                    store.setRed(parent, false);
+                    store.setRed(store.getRight(w), false);
+                    rotateLeft(parent);
+                    x = root;
+                }
+            } else {
+                int w = store.getLeft(parent);
+                if (store.isRed(w)) {
+                    store.setRed(w, false);
+                    store.setRed(parent, true);
+                    rotateRight(parent);
+                    w = store.getLeft(parent);
+                }
+                if (!store.isRed(store.getLeft(w)) && !store.isRed(store.getRight(w))) {
+                    store.setRed(w, true);
+                    x = parent;
+                } else {
+                    if (!store.isRed(store.getLeft(w))) {
+                        store.setRed(store.getRight(w), false);
+                        store.setRed(w, true);
+                        rotateLeft(w);
+                        w = store.getLeft(parent);
+                    }
+                    store.setRed(w, store.isRed(parent));
+                    store.setRed(parent, false);
+                    store.setRed(store.getLeft(w), false);
+                    rotateRight(parent);
+                    x = root;
+                }
+            }
+        }
+        store.setRed(x, false);
+    }
+
+    /**
+     * put v in u's place under u's parent, v may be nil
+     */
+    private void transplant(int u, int v) {
+        int parent = store.getParent(u);
+        if (parent == NIL) {
+            root = v;
+        } else if (u == store.getLeft(parent)) {
+            store.setLeft(parent, v);
+        } else {
+            store.setRight(parent, v);
+        }
+        store.setParent(v, parent);
+    }
+
+    private int minimum(int node) {
+        int left;
+        while ((left = store.getLeft(node)) != NIL) {
+            node = left;
+        }
+        return node;
+    }
+
+    /**
+     * rotate right
+     * @param node
+     */
+    private void rotateRight(int node) {
+        //get left
+        int left = store.getLeft(node);
+        if(left==NIL){
+            throw new java.lang.IllegalStateException("left node is null");
+        }
+        //get parent
+        int parent = store.getParent(node);
+
+        //leftRight move to node's left
+        int leftRight = store.getRight(left);
+        store.setLeft(node, leftRight);
+        if (leftRight != NIL) {
+            store.setParent(leftRight, node);
+        }
+
+        //node move to leftRight
+        store.setRight(left, node);
+        store.setParent(node, left);
+
+        //change left's parent
+        if(parent == NIL) {
+            root = left;
+        }else if (store.getLeft(parent) == node){
+            store.setLeft(parent, left);
+        }else {
+            store.setRight(parent, left);
+        }
+        store.setParent(left, parent);
+    }
+
+    /**
+     * rotate left
+     * @param node
+     */
+    private void rotateLeft(int node) {
+        //get right
+        int right = store.getRight(node);
+        if(right==NIL){
+            throw new java.lang.IllegalStateException("right node is null");
+        }
+
+        //get parent
+        int parent = store.getParent(node);
+
+        //rightLeft move to node's right
+        int rightLeft = store.getLeft(right);
+        store.setRight(node, rightLeft);
+        if (rightLeft != NIL) {
+            store.setParent(rightLeft, node);
+        }
+
+        //node move to rightLeft
+        store.setLeft(right, node);
+        store.setParent(node, right);
+
+        //change right's parent
+        if (parent == NIL){
+            root = right;
+        }else if (store.getLeft(parent) == node){
+            store.setLeft(parent, right);
+        }else{
+            store.setRight(parent, right);
+        }
+        store.setParent(right, parent);
+    }
+
+    /**
+     * get uncle node
+     * @param node
+     * @return
+     */
+    private int getUncle(int node) {
+        int parent = store.getParent(node);
+        int ancestor = store.getParent(parent);
+
+        if (ancestor == NIL){
+            return NIL;
+        }
+
+        if (parent == store.getLeft(ancestor)){
+            return store.getRight(ancestor);
+        }else {
+            return store.getLeft(ancestor);
+        }
+    }
+
+    /**
+     * find the parent node to hold key ,if parent key equals key return parent.
+     * be used to find insert position
+     * @param key
+     * @return
+     */
+    private int findParentNode(long key) {
+        int parent = root;
+        int cur = parent;
+        while (cur != NIL){
+            long k = store.getKey(cur);
+            if (k == key){
+                //the same key, return it
+                return cur;
+            }
+            parent = cur;
+            cur = k < key ? store.getRight(cur) : store.getLeft(cur);
+        }
+        return parent;
+    }
+
+    private int findNode(long key) {
+        int cur = root;
+        while (cur != NIL){
+            long k = store.getKey(cur);
+            if (k < key){
+                cur = store.getRight(cur);
+            }else if (k > key){
+                cur = store.getLeft(cur);
+            }else{
+                return cur;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * debug method,print the tree, every layer output in one line
+     */
+    public void printTree(){
+        java.util.LinkedList<Integer> queue =new java.util.LinkedList<Integer>();
+        if(root==NIL){
+            return ;
+        }
+        queue.add(root);
+
+        while(!queue.isEmpty()){
+            java.util.LinkedList<Integer> next =new java.util.LinkedList<Integer>();
+            while(!queue.isEmpty()){
+                int n = queue.poll();
+                System.out.print(store.getKey(n)+"("+(store.isRed(n)?"R":"B")+")"+"\t");
+                if(store.getLeft(n)!=NIL){
+                    next.add(store.getLeft(n));
+                }
+                if(store.getRight(n)!=NIL){
+                    next.add(store.getRight(n));
+                }
+            }
+            queue = next;
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package tree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * red black tree specialized for {@code long} keys.
+ * same insert, remove and fix logic as {@link RBTree}, but the key lives in the node
+ * and is compared with plain {@code <}, no boxing and no {@code compareTo} call.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+class LongRBTreeNode {
+    private long key;
+    private LongRBTreeNode parent;
+    private LongRBTreeNode left;
+    private LongRBTreeNode right;
+    private boolean red;
+
+    public LongRBTreeNode(){}
+    public LongRBTreeNode(long key){this.key=key;}
+
+    public long getKey() {
+        return key;
+    }
+    LongRBTreeNode getLeft() {
+        return left;
+    }
+    void setLeft(LongRBTreeNode left) {
+        this.left = left;
+    }
+    LongRBTreeNode getRight() {
+        return right;
+    }
+    void setRight(LongRBTreeNode right) {
+        this.right = right;
+    }
+    LongRBTreeNode getParent() {
+        return parent;
+    }
+    void setParent(LongRBTreeNode parent) {
+        this.parent = parent;
+    }
+
+    boolean isRed() {
+        return red;
+    }
+    boolean isBlack(){
+        return !red;
+    }
+
+    void setRed(boolean red) {
+        this.red = red;
+    }
+
+    void makeRed(){
+        this.red=true;
+    }
+    void makeBlack(){
+        this.red=false;
+    }
+    @Override
+    public String toString(){
+        return Long.toString(key);
+    }
+}
+
+public class LongRBTree {
+    //virtual head node
+    private LongRBTreeNode root;
+    private AtomicLong size = new AtomicLong(0);
+
+    public LongRBTree(){
+        this.root = new LongRBTreeNode();
+    }
+
+    private void setParent(LongRBTreeNode node,LongRBTreeNode parent){
+        if(node!=null){
+            node.setParent(parent);
+            if(parent==root){
+                node.setParent(null);
+            }
+        }
+    }
+
+    /**
+     * number of tree number
+     * @return
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * get the root node
+     * @return
+     */
+    public LongRBTreeNode getRoot(){
+        return root.getLeft();
+    }
+
+    /**
+     * whether the key exists in this tree
+     * @param key
+     * @return
+     */
+    public boolean contains(long key){
+        LongRBTreeNode dataRoot = getRoot();
+        while(dataRoot!=null){
+            long cur = dataRoot.getKey();
+            if(cur<key){
+                dataRoot = dataRoot.getRight();
+            }else if(cur>key){
+                dataRoot = dataRoot.getLeft();
+            }else{
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * add key to a new node
+     * @param key
+     * @return true if the key was added, false if it already exists
+     */
+    public boolean addNode(long key){
+        //Determine whether the header node is empty
+        if (root.getLeft() == null){
+            LongRBTreeNode node = new LongRBTreeNode(key);
+            //node become root, root is black
+            root.setLeft(node);
+            node.makeBlack();
+        }else {
+            //find insert point
+            LongRBTreeNode x = findParentNode(key);
+            long cur = x.getKey();
+
+            //key exists,ignore it
+            if(cur==key){
+                return false;
+            }
+
+            LongRBTreeNode node = new LongRBTreeNode(key);
+            node.makeRed();
+            //x become node's parent
+            setParent(node, x);
+
+            if(cur>key){
+                x.setLeft(node);
+            }else{
+                x.setRight(node);
+            }
+
+            //Keep RBTree's identity.
+            fixInsert(node);
+        }
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * remove the node holding key
+     * @param key
+     * @return true if the key was removed, false if it not exists
+     */
+    public boolean removeNode(long key){
+        LongRBTreeNode node = getRoot();
+        while (node != null && node.getKey() != key){
+            node = node.getKey() < key ? node.getRight() : node.getLeft();
+        }
+        if (node == null){
+            return false;
+        }
+        //x takes the place of the node actually unlinked, xParent is x's new parent(x may be null)
+        LongRBTreeNode x;
+        LongRBTreeNode xParent;
+        boolean removedBlack;
+        if (node.getLeft() == null){
+            x = node.getRight();
+            xParent = node.getParent();
+            removedBlack = node.isBlack();
+            transplant(node, x);
+        }else if (node.getRight() == null){
+            x = node.getLeft();
+            xParent = node.getParent();
+            removedBlack = node.isBlack();
+            transplant(node, x);
+        }else{
+            //successor has no left child, it is the one unlinked from its old place
+            LongRBTreeNode successor = node.getRight();
+            while (successor.getLeft() != null){
+                successor = successor.getLeft();
+            }
+            removedBlack = successor.isBlack();
+            x = successor.getRight();
+            if (successor.getParent() == node){
+                xParent = successor;
+            }else{
+                xParent = successor.getParent();
+                transplant(successor, x);
+                successor.setRight(node.getRight());
+                setParent(successor.getRight(), successor);
+            }
+            transplant(node, successor);
+            successor.setLeft(node.getLeft());
+            setParent(successor.getLeft(), successor);
+            successor.setRed(node.isRed());
+        }
+
+        //a black node is gone, one path is short of a black
+        if (removedBlack){
+            fixRemove(x, xParent);
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * red black tree remove fix, same cases as {@link RBTree}
+     * @param x the node that took the removed node's place, may be null
+     * @param parent x's parent
+     */
+    private void fixRemove(LongRBTreeNode x, LongRBTreeNode parent) {
+        while (parent != null && isBlack(x)) {
+            if (x == parent.getLeft()) {
+                LongRBTreeNode w = parent.getRight();
+                if (w.isRed()) {
+                    //case 1
+                    w.makeBlack();
+                    parent.makeRed();
+                    rotateLeft(parent);
+                    w = parent.getRight();
+                }
+                if (isBlack(w.getLeft()) && isBlack(w.getRight())) {
+                    //case 2
+                    w.makeRed();
+                    x = parent;
+                    parent = x.getParent();
+                } else {
+                    if (isBlack(w.getRight())) {
+                        //case 3
+                        w.getLeft().makeBlack();
+                        w.makeRed();
+                        rotateRight(w);
+                        w = parent.getRight();
+                    }
+                    //case 4
+                    w.setRed(parent.isRed());
+                    parent.makeBlack();
+                    w.getRight().makeBlack();
+                    rotateLeft(parent);
+                    x = getRoot();
+                    parent = null;
+                }
+            } else {
+                LongRBTreeNode w = parent.getLeft();
+                if (w.isRed()) {
+                    //case 1
+                    w.makeBlack();
+                    parent.makeRed();
+                    rotateRight(parent);
+                    w = parent.getLeft();
+                }
+                if (isBlack(w.getLeft()) && isBlack(w.getRight())) {
+                    //case 2
+                    w.makeRed();
+                    x = parent;
+                    parent = x.getParent();
+                } else {
+                    if (isBlack(w.getLeft())) {
+                        //case 3
+                        w.getRight().makeBlack();
+                        w.makeRed();
+                        rotateLeft(w);
+                        w = parent.getLeft();
+                    }
+                    //case 4
+                    w.setRed(parent.isRed());
+                    parent.makeBlack();
+                    w.getLeft().makeBlack();
+                    rotateRight(parent);
+                    x = getRoot();
+                    parent = null;
+                }
+            }
+        }
+        if (x != null) {
+            x.makeBlack();
+        }
+    }
+
+    /**
+     * put v where u hangs, u's parent becomes v's parent
+     */
+    private void transplant(LongRBTreeNode u, LongRBTreeNode v) {
+        LongRBTreeNode parent = u.getParent();
+        if (parent == null) {
+            root.setLeft(v);
+        } else if (parent.getLeft() == u) {
+            parent.setLeft(v);
+        } else {
+            parent.setRight(v);
+        }
+        setParent(v, parent);
+    }
+
+    //null leaves are black
+    private static boolean isBlack(LongRBTreeNode node) {
+        return node == null || node.isBlack();
+    }
+
+    /**
+     * red black tree insert fix, same cases as {@link RBTree}
+     * @param node is new node
+     */
+    private void fixInsert(LongRBTreeNode node) {
+        LongRBTreeNode parent = node.getParent();
+
+        //whether need to fix
+        while (parent != null && parent.isRed()) {
+            //get uncle
+            LongRBTreeNode uncle = getUncle(node);
+
+            if(uncle == null || uncle.isBlack()) {
+                //uncle is black, have 4 cases
+                LongRBTreeNode ancestor = parent.getParent();
+                if (ancestor.getLeft() == parent){
+                    boolean isRight = node == parent.getRight();
+                    if (isRight) {
+                        rotateLeft(parent);
+                    }
+                    rotateRight(ancestor);
+
+                    if (isRight) {
+                        //change the color of current and ancestor
+                        node.makeBlack();
+
+                        //end loop
+                        parent = null;
+                    }else{
+                        //end loop
+                        parent.makeBlack();
+                    }
+
+                    ancestor.makeRed();
+                }else{
+                    boolean isLeft = node == parent.getLeft();
+                    if (isLeft) {
+                        rotateRight(parent);
+                    }
+                    rotateLeft(ancestor);
+
+                    if (isLeft) {
+                        node.makeBlack();
+
+                        //end loop
+                        parent = null;
+                    }else {
+                        //end loop
+                        parent.makeBlack();
+                    }
+
+                    ancestor.makeRed();
+                }
+            }else{
+                //change the color of parent、uncle with ancestor
+                parent.makeBlack();
+                uncle.makeBlack();
+                LongRBTreeNode ancestor = parent.getParent();
+                ancestor.makeRed();
+
+                //ancestor as new insert node
+                node = parent.getParent();
+                parent = node.getParent();
+            }
+        }
+
+        //make sure root is black
+        LongRBTreeNode root = getRoot();
+        root.makeBlack();
+        setParent(root, null);
+    }
+
+    /**
+     * rotate right
+     * @param node
+     */
+    private void rotateRight(LongRBTreeNode node) {
+        //get left
+        LongRBTreeNode left = node.getLeft();
+        if(left==null){
+            throw new java.lang.IllegalStateException("left node is null");
+        }
+        //get parent
+        LongRBTreeNode parent = node.getParent();
+
+        //leftRight move to node's left
+        LongRBTreeNode leftRight = left.getRight();
+        node.setLeft(leftRight);
+        setParent(leftRight, node);
+
+        //node move to leftRight
+        left.setRight(node);
+        setParent(node, left);
+
+        //change left's parent
+        if(parent == null) {
+            root.setLeft(left);
+        }else {
+            if (parent.getLeft() == node){
+                parent.setLeft(left);
+            }else {
+                parent.setRight(left);
+            }
+        }
+        setParent(left, parent);
+    }
+
+    /**
+     * rotate left
+     * @param node
+     */
+    private void rotateLeft(LongRBTreeNode node) {
+        //get right
+        LongRBTreeNode right = node.getRight();
+        if(right==null){
+            throw new java.lang.IllegalStateException("right node is null");
+        }
+
+        //get parent
+        LongRBTreeNode parent = node.getParent();
+
+        //rightLeft move to node's right
+        LongRBTreeNode rightLeft = right.getLeft();
+        node.setRight(rightLeft);
+        setParent(rightLeft, node);
+
+        //node move to rightLeft
+        right.setLeft(node);
+        setParent(node, right);
+
+        //change left's parent
+        if (parent == null){
+            root.setLeft(right);
+        }else{
+            if (parent.getLeft() == node){
+                parent.setLeft(right);
+            }else{
+                parent.setRight(right);
+            }
+        }
+        setParent(right, parent);
+    }
+
+    /**
+     * get uncle node
+     * @param node
+     * @return
+     */
+    private LongRBTreeNode getUncle(LongRBTreeNode node) {
+        LongRBTreeNode parent = node.getParent();
+        LongRBTreeNode ancestor = parent.getParent();
+
+        if (ancestor == null){
+            return null;
+        }
+
+        if (parent == ancestor.getLeft()){
+            return ancestor.getRight();
+        }else {
+            return ancestor.getLeft();
+        }
+    }
+
+    /**
+     * find the parent node to hold key ,if parent key equals key return parent.
+     * be used to find insert position
+     * @param key
+     * @return
+     */
+    private LongRBTreeNode findParentNode(long key) {
+        //get root node
+        LongRBTreeNode parent = getRoot();
+        LongRBTreeNode cur = parent;
+        while (cur != null){
+            long k = cur.getKey();
+            if (k == key){
+                //the same key, return it
+                return cur;
+            }else if (k < key){
+                //Greater than, right
+                parent = cur;
+                cur = cur.getRight();
+            }else {
+                //Less than, left
+                parent = cur;
+                cur = cur.getLeft();
+            }
+        }
+
+        return parent;
+    }
+
+    /**
+     * compile the current keys into a read only {@link FrozenLongTree}, later changes are not seen
+     * @return
+     */
+    public FrozenLongTree freeze(){
+        FrozenTree.checkSize(getSize());
+        long[] sorted = new long[(int) getSize()];
+        int i = 0;
+        //in-order walk with an explicit stack
+        java.util.ArrayDeque<LongRBTreeNode> stack = new java.util.ArrayDeque<LongRBTreeNode>();
+        LongRBTreeNode cur = getRoot();
+        while (cur != null || !stack.isEmpty()){
+            while (cur != null){
+                stack.push(cur);
+                cur = cur.getLeft();
+            }
+            cur = stack.pop();
+            sorted[i++] = cur.getKey();
+            cur = cur.getRight();
+        }
+        return FrozenLongTree.fromSorted(sorted);
+    }
+
+    /**
+     * debug method,it used print the given node and its children nodes,
+     * every layer output in one line
+     * @param root
+     */
+    public void printTree(LongRBTreeNode root){
+        java.util.LinkedList<LongRBTreeNode> queue =new java.util.LinkedList<LongRBTreeNode>();
+        if(root==null){
+            return ;
+        }
+        queue.add(root);
+
+        while(!queue.isEmpty()){
+            java.util.LinkedList<LongRBTreeNode> next =new java.util.LinkedList<LongRBTreeNode>();
+            while(!queue.isEmpty()){
+                LongRBTreeNode n = queue.poll();
+                System.out.print(n+"("+(n.isRed()?"R":"B")+")"+"\t");
+                if(n.getLeft()!=null){
+                    next.add(n.getLeft());
+                }
+                if(n.getRight()!=null){
+                    next.add(n.getRight());
+                }
+            }
+            queue = next;
+            System.out.println();
+        }
+    }
+}
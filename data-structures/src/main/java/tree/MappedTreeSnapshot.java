@@ -0,0 +1,152 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * read only view of a file written by {@link TreeSnapshot}.
+ * the file is mapped, not read: opening only checks the header, {@link #find(Comparable)}
+ * binary searches the mapped keys and decodes just the O(log n) keys it compares against,
+ * pages are brought in by the OS on first touch.
+ * one mapping is at most 2GB, larger snapshots are rejected.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class MappedTreeSnapshot<T extends Comparable<T>> implements Iterable<T> {
+    private final ByteBuffer buffer;
+    private final TreeKeyCodec<T> codec;
+    private final int width;
+    private final long size;
+
+    private MappedTreeSnapshot(ByteBuffer buffer, TreeKeyCodec<T> codec, long size) {
+        this.buffer = buffer;
+        this.codec = codec;
+        this.width = codec.width();
+        this.size = size;
+    }
+
+    /**
+     * map the snapshot at path, the channel is closed again, the mapping stays valid
+     * @param path
+     * @param codec must be the codec the snapshot was written with
+     * @return
+     * @throws IOException if the file is not a snapshot of this key width
+     */
+    public static <T extends Comparable<T>> MappedTreeSnapshot<T> open(Path path, TreeKeyCodec<T> codec) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("snapshot larger than 2GB: " + path);
+            }
+            if (fileSize < TreeSnapshot.HEADER_BYTES) {
+                throw new IOException("not a tree snapshot: " + path);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+        if (mapped.getInt(0) != TreeSnapshot.MAGIC) {
+            throw new IOException("not a tree snapshot: " + path);
+        }
+        if (mapped.getInt(4) != TreeSnapshot.VERSION) {
+            throw new IOException("unsupported snapshot version " + mapped.getInt(4) + ": " + path);
+        }
+        int width = codec.width();
+        if (width <= 0 || mapped.getInt(8) != width) {
+            throw new IOException("snapshot key width " + mapped.getInt(8) + ", codec width " + width);
+        }
+        long size = mapped.getLong(12);
+        //compare by division first, a corrupt count must not overflow size * width
+        if (size < 0 || size > (mapped.capacity() - TreeSnapshot.HEADER_BYTES) / width
+                || TreeSnapshot.HEADER_BYTES + size * width != mapped.capacity()) {
+            throw new IOException("truncated snapshot: " + path);
+        }
+        return new MappedTreeSnapshot<T>(mapped, codec, size);
+    }
+
+    /**
+     * number of keys
+     * @return
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * the i-th smallest key, i starts at 0
+     * @param index
+     * @return
+     */
+    public T get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return keyAt((int) index);
+    }
+
+    /**
+     * binary search on the mapped keys
+     * @param value
+     * @return the equal key from the file, null if absent
+     */
+    public T find(T value) {
+        int lo = 0;
+        int hi = (int) size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            T key = keyAt(mid);
+            int cmp = key.compareTo(value);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ascending iterator over the mapped keys
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public T next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return keyAt(next++);
+            }
+        };
+    }
+
+    /**
+     * a mutable RBTree with every key, built in O(n) without comparisons or rotations
+     * @return
+     */
+    public RBTree<T> toRBTree() {
+        return RBTree.fromSorted(iterator(), size);
+    }
+
+    private T keyAt(int index) {
+        return codec.read(buffer, TreeSnapshot.HEADER_BYTES + index * width);
+    }
+}
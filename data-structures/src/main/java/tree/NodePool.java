@@ -0,0 +1,140 @@
+package tree;
+
+/**
+ * bounded free list of tree nodes.
+ * a tree with a pool ({@link RBTree#setNodePool(NodePool)}, {@link SearchTree#setNodePool(NodePool)})
+ * gives every removed node back and takes new nodes from here first, so a workload that inserts
+ * about as often as it removes stops allocating nodes once the pool has filled up.
+ * nodes beyond the capacity are left to the garbage collector.
+ * <p>
+ * a shared pool is not thread safe, it may only serve trees used by one thread at a time.
+ * a thread-local pool keeps one free list per thread, so it can serve trees on different threads
+ * (each tree still needs its own synchronization); a node removed on one thread is reused on that thread.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class NodePool<N> {
+    private final int capacity;
+    private final FreeList shared;
+    private final ThreadLocal<FreeList> local;
+
+    /**
+     * shared pool
+     * @param capacity most nodes kept
+     */
+    public NodePool(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity most nodes kept, per thread if threadLocal
+     * @param threadLocal one free list per thread
+     */
+    public NodePool(final int capacity, boolean threadLocal) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity is negative: " + capacity);
+        }
+        this.capacity = capacity;
+        if (threadLocal) {
+            this.shared = null;
+            this.local = new ThreadLocal<FreeList>() {
+                @Override
+                protected FreeList initialValue() {
+                    return new FreeList();
+                }
+            };
+        } else {
+            this.shared = new FreeList();
+            this.local = null;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isThreadLocal() {
+        return local != null;
+    }
+
+    /**
+     * number of free nodes (of the calling thread if thread-local)
+     * @return
+     */
+    public int size() {
+        return list().count;
+    }
+
+    /**
+     * @return a free node, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    N take() {
+        FreeList list = list();
+        if (list.count == 0) {
+            return null;
+        }
+        N node = (N) list.nodes[--list.count];
+        list.nodes[list.count] = null;
+        return node;
+    }
+
+    /**
+     * @param node already unlinked and cleared by the tree
+     * @return false if the pool is full and the node was dropped
+     */
+    boolean give(N node) {
+        FreeList list = list();
+        if (list.count == capacity) {
+            return false;
+        }
+        if (list.count == list.nodes.length) {
+            //grow lazily, a pool that is never used costs nothing
+            Object[] nodes = new Object[(int) Math.min(capacity, Math.max(16L, 2L * list.count))];
+            System.arraycopy(list.nodes, 0, nodes, 0, list.count);
+            list.nodes = nodes;
+        }
+        list.nodes[list.count++] = node;
+        return true;
+    }
+
+    /**
+     * drop free nodes until at most keep are left, and shrink the free list to fit
+     * (of the calling thread if thread-local)
+     * @param keep
+     * @return number of nodes dropped
+     */
+    public int trim(int keep) {
+        if (keep < 0) {
+            throw new IllegalArgumentException("keep is negative: " + keep);
+        }
+        FreeList list = list();
+        int dropped = Math.max(0, list.count - keep);
+        list.count -= dropped;
+        Object[] nodes = new Object[list.count];
+        System.arraycopy(list.nodes, 0, nodes, 0, list.count);
+        list.nodes = nodes;
+        return dropped;
+    }
+
+    /**
+     * drop every free node (of the calling thread if thread-local)
+     */
+    public void clear() {
+        trim(0);
+    }
+
+    private FreeList list() {
+        return local == null ? shared : local.get();
+    }
+
+    /**
+     * stack of free nodes
+     */
+    private static final class FreeList {
+        Object[] nodes = new Object[0];
+        int count;
+    }
+}
@@ -0,0 +1,100 @@
+package tree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * nodes in a direct ByteBuffer outside the java heap, one 24 byte record per node:
+ * key(8) left(4) right(4) parent(4) red(4)
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+class OffHeapRBNodeStore extends RBNodeStore {
+    private static final int NODE_BYTES = 24;
+    private static final int KEY = 0;
+    private static final int LEFT = 8;
+    private static final int RIGHT = 12;
+    private static final int PARENT = 16;
+    private static final int RED = 20;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / NODE_BYTES;
+
+    private ByteBuffer buffer;
+
+    OffHeapRBNodeStore(int initialCapacity) {
+        buffer = allocate(Math.max(initialCapacity, 2));
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * NODE_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    int capacity() {
+        return buffer.capacity() / NODE_BYTES;
+    }
+
+    @Override
+    void grow() {
+        int capacity = capacity();
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("off-heap node store is full");
+        }
+        capacity = (int) Math.min((long) capacity + (capacity >> 1), MAX_CAPACITY);
+        ByteBuffer bigger = allocate(capacity);
+        buffer.clear();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+
+    @Override
+    long getKey(int node) {
+        return buffer.getLong(node * NODE_BYTES + KEY);
+    }
+
+    @Override
+    void setKey(int node, long key) {
+        buffer.putLong(node * NODE_BYTES + KEY, key);
+    }
+
+    @Override
+    int getLeft(int node) {
+        return buffer.getInt(node * NODE_BYTES + LEFT);
+    }
+
+    @Override
+    void setLeft(int node, int left) {
+        buffer.putInt(node * NODE_BYTES + LEFT, left);
+    }
+
+    @Override
+    int getRight(int node) {
+        return buffer.getInt(node * NODE_BYTES + RIGHT);
+    }
+
+    @Override
+    void setRight(int node, int right) {
+        buffer.putInt(node * NODE_BYTES + RIGHT, right);
+    }
+
+    @Override
+    int getParent(int node) {
+        return buffer.getInt(node * NODE_BYTES + PARENT);
+    }
+
+    @Override
+    void setParent(int node, int parent) {
+        buffer.putInt(node * NODE_BYTES + PARENT, parent);
+    }
+
+    @Override
+    boolean isRed(int node) {
+        return buffer.getInt(node * NODE_BYTES + RED) != 0;
+    }
+
+    @Override
+    void setRed(int node, boolean red) {
+        buffer.putInt(node * NODE_BYTES + RED, red ? 1 : 0);
+    }
+}
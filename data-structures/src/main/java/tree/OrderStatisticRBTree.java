@@ -0,0 +1,141 @@
+package tree;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+class OrderStatisticRBTreeNode<T extends Comparable<T>> extends RBTreeNode<T> {
+    //number of nodes in the subtree rooted here, this node included
+    private long subtreeSize = 1;
+
+    public OrderStatisticRBTreeNode(T value){super(value);}
+
+    long getSubtreeSize() {
+        return subtreeSize;
+    }
+    void setSubtreeSize(long subtreeSize) {
+        this.subtreeSize = subtreeSize;
+    }
+}
+
+/**
+ * red black tree whose nodes also count their subtree,
+ * the count is kept up to date by the rotations and on the insert path,
+ * so rank, select and range counts are O(log n) instead of a traversal.
+ */
+public class OrderStatisticRBTree<T extends Comparable<T>> extends RBTree<T> {
+
+    public OrderStatisticRBTree(){
+        super();
+    }
+
+    public OrderStatisticRBTree(boolean overrideMode){
+        super(overrideMode);
+    }
+
+    /**
+     * only nodes that carry a subtree size can be added
+     * @param node
+     * @return
+     */
+    @Override
+    public T addNode(RBTreeNode<T> node){
+        if (!(node instanceof OrderStatisticRBTreeNode)){
+            throw new IllegalArgumentException("node must be an OrderStatisticRBTreeNode");
+        }
+        return super.addNode(node);
+    }
+
+    /**
+     * number of values strictly less than value
+     * @param value
+     * @return
+     */
+    public long rank(T value){
+        return countBelow(value, false);
+    }
+
+    /**
+     * the k-th smallest value, k starts at 0
+     * @param k
+     * @return
+     */
+    public T select(long k){
+        if (k < 0 || k >= getSize()){
+            throw new IndexOutOfBoundsException("k: " + k + ", size: " + getSize());
+        }
+        RBTreeNode<T> cur = getRoot();
+        while (true){
+            long leftSize = sizeOf(cur.getLeft());
+            if (k < leftSize){
+                cur = cur.getLeft();
+            }else if (k > leftSize){
+                k -= leftSize + 1;
+                cur = cur.getRight();
+            }else{
+                return cur.getValue();
+            }
+        }
+    }
+
+    /**
+     * number of values in [lo, hi], both ends included
+     * @param lo
+     * @param hi
+     * @return
+     */
+    public long countInRange(T lo, T hi){
+        if (lo.compareTo(hi) > 0){
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    /**
+     * number of values less than value, or less than or equal when inclusive
+     */
+    private long countBelow(T value, boolean inclusive){
+        long count = 0;
+        RBTreeNode<T> cur = getRoot();
+        while (cur != null){
+            int cmp = cur.getValue().compareTo(value);
+            if (cmp < 0 || (inclusive && cmp == 0)){
+                //cur and its left subtree are below value
+                count += sizeOf(cur.getLeft()) + 1;
+                cur = cur.getRight();
+            }else{
+                cur = cur.getLeft();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    RBTreeNode<T> createNode(T value){
+        return new OrderStatisticRBTreeNode<T>(value);
+    }
+
+    @Override
+    void resetNode(RBTreeNode<T> node){
+        ((OrderStatisticRBTreeNode<T>) node).setSubtreeSize(1);
+    }
+
+    @Override
+    void updateNode(RBTreeNode<T> node){
+        ((OrderStatisticRBTreeNode<T>) node).setSubtreeSize(
+                sizeOf(node.getLeft()) + sizeOf(node.getRight()) + 1);
+    }
+
+    @Override
+    void updatePath(RBTreeNode<T> node){
+        for (; node != null; node = node.getParent()){
+            updateNode(node);
+        }
+    }
+
+    private static <T extends Comparable<T>> long sizeOf(RBTreeNode<T> node){
+        return node == null ? 0 : ((OrderStatisticRBTreeNode<T>) node).getSubtreeSize();
+    }
+}
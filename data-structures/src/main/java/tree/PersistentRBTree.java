@@ -0,0 +1,355 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+
+//immutable node, shared by every version of the tree that contains it
+final class PersistentRBTreeNode<T extends Comparable<T>> {
+    final T value;
+    final PersistentRBTreeNode<T> left;
+    final PersistentRBTreeNode<T> right;
+    final boolean red;
+
+    PersistentRBTreeNode(boolean red, PersistentRBTreeNode<T> left, T value, PersistentRBTreeNode<T> right) {
+        this.red = red;
+        this.left = left;
+        this.value = value;
+        this.right = right;
+    }
+
+    @Override
+    public String toString() {
+        return value.toString();
+    }
+}
+
+/**
+ * persistent (immutable) red black tree.
+ * addNode and removeNode never change this tree, they return a new version that copies
+ * only the O(log n) nodes on the search path and shares every other subtree with this one,
+ * so any number of readers can keep using an old version without locks or copies.
+ * <p>
+ * balancing follows Kahrs, "Red-black trees with types" (JFP 2001): insert rebalances on the way
+ * back up with the four red-red cases, remove keeps an extra black in balanceLeft/balanceRight.
+ */
+public final class PersistentRBTree<T extends Comparable<T>> implements Iterable<T> {
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final PersistentRBTree EMPTY = new PersistentRBTree(null, 0);
+
+    private final PersistentRBTreeNode<T> root;
+    private final long size;
+
+    private PersistentRBTree(PersistentRBTreeNode<T> root, long size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * the empty tree
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<T>> PersistentRBTree<T> empty() {
+        return (PersistentRBTree<T>) EMPTY;
+    }
+
+    /**
+     * number of tree number
+     * @return
+     */
+    public long getSize() {
+        return size;
+    }
+
+    PersistentRBTreeNode<T> getRoot() {
+        return root;
+    }
+
+    /**
+     * find the value equal to the given one, null if absent
+     * @param value
+     * @return
+     */
+    public T find(T value) {
+        PersistentRBTreeNode<T> cur = root;
+        while (cur != null) {
+            int cmp = cur.value.compareTo(value);
+            if (cmp < 0) {
+                cur = cur.right;
+            } else if (cmp > 0) {
+                cur = cur.left;
+            } else {
+                return cur.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the version with value added, an equal value already in the tree is replaced
+     * @param value
+     * @return
+     */
+    public PersistentRBTree<T> addNode(T value) {
+        return addNode(value, new Change<T>());
+    }
+
+    /**
+     * the version with value added, the replaced equal value is left in change
+     * @param value
+     * @param change
+     * @return
+     */
+    PersistentRBTree<T> addNode(T value, Change<T> change) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        change.old = null;
+        PersistentRBTreeNode<T> newRoot = insert(root, value, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentRBTree<T>(blacken(newRoot), change.old == null ? size + 1 : size);
+    }
+
+    /**
+     * the version without value, this tree if value is absent
+     * @param value
+     * @return
+     */
+    public PersistentRBTree<T> removeNode(T value) {
+        return removeNode(value, new Change<T>());
+    }
+
+    /**
+     * the version without value, the removed value is left in change
+     * @param value
+     * @param change
+     * @return
+     */
+    PersistentRBTree<T> removeNode(T value, Change<T> change) {
+        change.old = null;
+        PersistentRBTreeNode<T> newRoot = delete(root, value, change);
+        if (change.old == null) {
+            return this;
+        }
+        newRoot = blacken(newRoot);
+        return newRoot == null ? PersistentRBTree.<T>empty() : new PersistentRBTree<T>(newRoot, size - 1);
+    }
+
+    /**
+     * ascending iterator, keeps a stack of the left spine
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator() {
+        final ArrayDeque<PersistentRBTreeNode<T>> stack = new ArrayDeque<PersistentRBTreeNode<T>>();
+        for (PersistentRBTreeNode<T> n = root; n != null; n = n.left) {
+            stack.push(n);
+        }
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                PersistentRBTreeNode<T> node = stack.pop();
+                for (PersistentRBTreeNode<T> n = node.right; n != null; n = n.left) {
+                    stack.push(n);
+                }
+                return node.value;
+            }
+        };
+    }
+
+    private PersistentRBTreeNode<T> insert(PersistentRBTreeNode<T> t, T value, Change<T> change) {
+        if (t == null) {
+            return red(null, value, null);
+        }
+        int cmp = value.compareTo(t.value);
+        if (cmp < 0) {
+            PersistentRBTreeNode<T> left = insert(t.left, value, change);
+            if (left == t.left) {
+                return t;
+            }
+            return t.red ? red(left, t.value, t.right) : balance(left, t.value, t.right);
+        } else if (cmp > 0) {
+            PersistentRBTreeNode<T> right = insert(t.right, value, change);
+            if (right == t.right) {
+                return t;
+            }
+            return t.red ? red(t.left, t.value, right) : balance(t.left, t.value, right);
+        }
+        change.old = t.value;
+        return t.value == value ? t : new PersistentRBTreeNode<T>(t.red, t.left, value, t.right);
+    }
+
+    //an absent value leaves change.old null and t unchanged, the path is only copied after a hit
+    private PersistentRBTreeNode<T> delete(PersistentRBTreeNode<T> t, T value, Change<T> change) {
+        if (t == null) {
+            return null;
+        }
+        int cmp = value.compareTo(t.value);
+        if (cmp < 0) {
+            PersistentRBTreeNode<T> left = delete(t.left, value, change);
+            if (change.old == null) {
+                return t;
+            }
+            //a black child loses a black, the extra black is fixed here
+            return isBlackNode(t.left)
+                    ? balanceLeft(left, t.value, t.right)
+                    : red(left, t.value, t.right);
+        } else if (cmp > 0) {
+            PersistentRBTreeNode<T> right = delete(t.right, value, change);
+            if (change.old == null) {
+                return t;
+            }
+            return isBlackNode(t.right)
+                    ? balanceRight(t.left, t.value, right)
+                    : red(t.left, t.value, right);
+        }
+        change.old = t.value;
+        return append(t.left, t.right);
+    }
+
+    /**
+     * black node over l, value, r with any red-red below fixed by one of the four cases,
+     * both children red is solved by a color flip
+     */
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> balance(
+            PersistentRBTreeNode<T> l, T value, PersistentRBTreeNode<T> r) {
+        if (isRed(l) && isRed(r)) {
+            return red(blacken(l), value, blacken(r));
+        }
+        if (isRed(l)) {
+            if (isRed(l.left)) {
+                return red(blacken(l.left), l.value, black(l.right, value, r));
+            }
+            if (isRed(l.right)) {
+                return red(black(l.left, l.value, l.right.left), l.right.value, black(l.right.right, value, r));
+            }
+        }
+        if (isRed(r)) {
+            if (isRed(r.right)) {
+                return red(black(l, value, r.left), r.value, blacken(r.right));
+            }
+            if (isRed(r.left)) {
+                return red(black(l, value, r.left.left), r.left.value, black(r.left.right, r.value, r.right));
+            }
+        }
+        return black(l, value, r);
+    }
+
+    /**
+     * l is one black short after a remove
+     */
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> balanceLeft(
+            PersistentRBTreeNode<T> l, T value, PersistentRBTreeNode<T> r) {
+        if (isRed(l)) {
+            return red(blacken(l), value, r);
+        }
+        if (isBlackNode(r)) {
+            return balance(l, value, redden(r));
+        }
+        if (isRed(r) && isBlackNode(r.left)) {
+            PersistentRBTreeNode<T> rl = r.left;
+            return red(black(l, value, rl.left), rl.value, balance(rl.right, r.value, redden(r.right)));
+        }
+        throw new IllegalStateException("red black invariant broken");
+    }
+
+    /**
+     * r is one black short after a remove
+     */
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> balanceRight(
+            PersistentRBTreeNode<T> l, T value, PersistentRBTreeNode<T> r) {
+        if (isRed(r)) {
+            return red(l, value, blacken(r));
+        }
+        if (isBlackNode(l)) {
+            return balance(redden(l), value, r);
+        }
+        if (isRed(l) && isBlackNode(l.right)) {
+            PersistentRBTreeNode<T> lr = l.right;
+            return red(balance(redden(l.left), l.value, lr.left), lr.value, black(lr.right, value, r));
+        }
+        throw new IllegalStateException("red black invariant broken");
+    }
+
+    /**
+     * join the two children of a removed node, every value of a is less than every value of b
+     */
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> append(
+            PersistentRBTreeNode<T> a, PersistentRBTreeNode<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.red && b.red) {
+            PersistentRBTreeNode<T> bc = append(a.right, b.left);
+            if (isRed(bc)) {
+                return red(red(a.left, a.value, bc.left), bc.value, red(bc.right, b.value, b.right));
+            }
+            return red(a.left, a.value, red(bc, b.value, b.right));
+        }
+        if (!a.red && !b.red) {
+            PersistentRBTreeNode<T> bc = append(a.right, b.left);
+            if (isRed(bc)) {
+                return red(black(a.left, a.value, bc.left), bc.value, black(bc.right, b.value, b.right));
+            }
+            return balanceLeft(a.left, a.value, black(bc, b.value, b.right));
+        }
+        if (b.red) {
+            return red(append(a, b.left), b.value, b.right);
+        }
+        return red(a.left, a.value, append(a.right, b));
+    }
+
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> red(
+            PersistentRBTreeNode<T> l, T value, PersistentRBTreeNode<T> r) {
+        return new PersistentRBTreeNode<T>(true, l, value, r);
+    }
+
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> black(
+            PersistentRBTreeNode<T> l, T value, PersistentRBTreeNode<T> r) {
+        return new PersistentRBTreeNode<T>(false, l, value, r);
+    }
+
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> blacken(PersistentRBTreeNode<T> node) {
+        return node == null || !node.red ? node : black(node.left, node.value, node.right);
+    }
+
+    private static <T extends Comparable<T>> PersistentRBTreeNode<T> redden(PersistentRBTreeNode<T> node) {
+        return red(node.left, node.value, node.right);
+    }
+
+    private static boolean isRed(PersistentRBTreeNode<?> node) {
+        return node != null && node.red;
+    }
+
+    //a real black node, null leaves don't count
+    private static boolean isBlackNode(PersistentRBTreeNode<?> node) {
+        return node != null && !node.red;
+    }
+
+    /**
+     * what one addNode or removeNode walk met: the replaced or removed value, null if there was none
+     */
+    static final class Change<T extends Comparable<T>> {
+        T old;
+    }
+}
@@ -0,0 +1,90 @@
+package tree;
+
+/**
+ * storage of red black tree nodes addressed by int index instead of object reference.
+ * index 0 is the shared nil node, it is always black and never handed out by {@link #allocate(long)}.
+ * released nodes are kept in a free-list linked through their left slot and reused first.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+abstract class RBNodeStore {
+    static final int NIL = 0;
+
+    //first never used index
+    private int next = 1;
+    //head of the free-list
+    private int free = NIL;
+
+    /**
+     * take a node from the free-list or a new slot, links are reset to nil and color is black
+     * @param key
+     * @return node index
+     */
+    int allocate(long key) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = getLeft(node);
+        } else {
+            if (next == capacity()) {
+                grow();
+            }
+            node = next++;
+        }
+        setKey(node, key);
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        setParent(node, NIL);
+        setRed(node, false);
+        return node;
+    }
+
+    /**
+     * put the node back on the free-list
+     * @param node
+     */
+    void release(int node) {
+        setRight(node, NIL);
+        setParent(node, NIL);
+        setLeft(node, free);
+        free = node;
+    }
+
+    /**
+     * forget every node, storage is kept for reuse
+     */
+    void clear() {
+        next = 1;
+        free = NIL;
+        setLeft(NIL, NIL);
+        setRight(NIL, NIL);
+        setParent(NIL, NIL);
+        setRed(NIL, false);
+    }
+
+    abstract int capacity();
+
+    abstract void grow();
+
+    abstract long getKey(int node);
+
+    abstract void setKey(int node, long key);
+
+    abstract int getLeft(int node);
+
+    abstract void setLeft(int node, int left);
+
+    abstract int getRight(int node);
+
+    abstract void setRight(int node, int right);
+
+    abstract int getParent(int node);
+
+    abstract void setParent(int node, int parent);
+
+    abstract boolean isRed(int node);
+
+    abstract void setRed(int node, boolean red);
+}
@@ -1,93 +1,51 @@
 package tree;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author lingqu
  * @date 2022/11/4
  * @apiNote
  */
+public class RBTree<T extends Comparable<T>> implements Iterable<T> {
+    //addAll rebuilds the whole tree when the batch is at least 1/MERGE_RATIO of the tree
+    private static final int MERGE_RATIO = 4;
+    //set operations fork while the other tree's subtree has at least this black height (at least 2^h - 1 nodes)
+    private static final int PARALLEL_HEIGHT = 8;
+    static final int UNION = 0;
+    static final int INTERSECT = 1;
+    static final int DIFFERENCE = 2;
 
-class RBTreeNode<T extends Comparable<T>> {
-    private T value;
-    private RBTreeNode<T> parent;
-    private RBTreeNode<T> left;
-    private RBTreeNode<T> right;
-    private boolean red;
-
-
-    public RBTreeNode(){}
-    public RBTreeNode(T value){this.value=value;}
-    public RBTreeNode(T value,boolean isRed){this.value=value;this.red = isRed;}
-
-    public T getValue() {
-        return value;
-    }
-    void setValue(T value) {
-        this.value = value;
-    }
-    RBTreeNode<T> getLeft() {
-        return left;
-    }
-    void setLeft(RBTreeNode<T> left) {
-        this.left = left;
-    }
-    RBTreeNode<T> getRight() {
-        return right;
-    }
-    void setRight(RBTreeNode<T> right) {
-        this.right = right;
-    }
-    RBTreeNode<T> getParent() {
-        return parent;
-    }
-    void setParent(RBTreeNode<T> parent) {
-        this.parent = parent;
-    }
-
-    boolean isRed() {
-        return red;
-    }
-    boolean isBlack(){
-        return !red;
-    }
-    /**
-     * is leaf node
-     **/
-    boolean isLeaf(){
-        return left==null && right==null;
-    }
-
-    void setRed(boolean red) {
-        this.red = red;
-    }
-
-    void makeRed(){
-        this.red=true;
-    }
-    void makeBlack(){
-        this.red=false;
-    }
-    @Override
-    public String toString(){
-        return value.toString();
-    }
-}
-
-public class RBTree<T extends Comparable<T>> {
     //virtual head node
     private RBTreeNode<T> root;
     private AtomicLong size = new AtomicLong(0);
+    //number of structural changes, lets iterators fail fast
+    private int modCount;
 
-    //in overwrite mode,all node's value can not  has same    value
-    //in non-overwrite mode,node can have same value, suggest don't use non-overwrite mode.
+    //values are distinct in both modes: an equal value replaces the stored one in override mode,
+    //in non-override mode it is dropped and the stored one kept. CountedRBTree counts duplicates instead
     private boolean overrideMode = true;
+    //hot path counters, off unless setMetrics is called
+    private TreeMetrics metrics = TreeMetrics.NOOP;
+    //removed nodes go here and new ones come from here, off unless setNodePool is called
+    private NodePool<RBTreeNode<T>> nodePool;
 
-    RBTree(){
+    public RBTree(){
         this.root = new RBTreeNode<T>();
     }
 
-    RBTree(boolean overrideMode){
+    public RBTree(boolean overrideMode){
         this();
         this.overrideMode = overrideMode;
     }
@@ -103,6 +61,19 @@ public class RBTree<T extends Comparable<T>> {
 
     public boolean isOverrideMode(){return overrideMode;}
     public void setOverrideMode(boolean overrideMode) {this.overrideMode = overrideMode;}
+    public TreeMetrics getMetrics(){return metrics;}
+    public void setMetrics(TreeMetrics metrics) {this.metrics = metrics == null ? TreeMetrics.NOOP : metrics;}
+    public NodePool<RBTreeNode<T>> getNodePool(){return nodePool;}
+
+    /**
+     * recycle nodes through pool: removeNode, intersect and difference give nodes back, addNode and union take them first.
+     * set operations run on the calling thread while a pool is set, they neither fork nor use the ForkJoinPool,
+     * so a thread-local pool gives and takes nodes on the caller's free list.
+     * a removed node is reused, so node references (getRoot etc.) must not be kept across a remove.
+     * trees sharing a pool must be of the same class, augmented trees pool their own node type
+     * @param pool null switches recycling off
+     */
+    public void setNodePool(NodePool<RBTreeNode<T>> pool){this.nodePool = pool;}
 
 
     /**
@@ -128,18 +99,31 @@ public class RBTree<T extends Comparable<T>> {
      * @return
      */
     public T find(T value){
+        RBTreeNode<T> node = findNode(value);
+        return node == null ? null : node.getValue();
+    }
+
+    /**
+     * find the node holding value, null if not exist
+     * @param value
+     * @return
+     */
+    RBTreeNode<T> findNode(T value){
         RBTreeNode<T> dataRoot = getRoot();
+        int depth = 0;
         while(dataRoot!=null){
+            depth++;
             int cmp = dataRoot.getValue().compareTo(value);
             if(cmp<0){
                 dataRoot = dataRoot.getRight();
             }else if(cmp>0){
                 dataRoot = dataRoot.getLeft();
             }else{
-                return dataRoot.getValue();
+                break;
             }
         }
-        return null;
+        metrics.recordDescent(depth, depth);
+        return dataRoot;
     }
 
     /**
@@ -152,8 +136,14 @@ public class RBTree<T extends Comparable<T>> {
      * @return
      */
     public T addNode(T value){
-        RBTreeNode<T> t = new RBTreeNode<T>(value);
-        return addNode(t);
+        RBTreeNode<T> t = newNode(value);
+        long before = size.get();
+        T old = addNode(t);
+        if (size.get() == before){
+            //the value was already in the tree, t was not linked
+            recycle(t);
+        }
+        return old;
     }
 
     /**
@@ -174,34 +164,693 @@ public class RBTree<T extends Comparable<T>> {
             root.setLeft(node);
             //root is black
             node.makeBlack();
+            updatePath(node);
         }else {
             //find insert point
-            RBTreeNode<T> x = findParentNode(node);
+            RBTreeNode<T> x = findParentNode(getRoot(), node.getValue());
             int cmp = x.getValue().compareTo(node.getValue());
 
             //value exists,ignore this node
             if(this.overrideMode && cmp==0){
                 T v = x.getValue();
                 x.setValue(node.getValue());
+                updatePath(x);
                 return v;
             }else if(cmp==0){
                 return x.getValue();
             }
 
-            //x become node's parent
-            setParent(node, x);
+            linkNode(node, x, cmp);
+            return null;
+        }
+        size.incrementAndGet();
+        modCount++;
+        return null;
+    }
 
-            if(cmp>0){
-                x.setLeft(node);
+    /**
+     * hang a new node under its insert point x and restore the red black rules
+     * @param node
+     * @param x
+     * @param cmp x's value compared to node's value
+     */
+    void linkNode(RBTreeNode<T> node, RBTreeNode<T> x, int cmp){
+        //x become node's parent
+        setParent(node, x);
+
+        if(cmp>0){
+            x.setLeft(node);
+        }else{
+            x.setRight(node);
+        }
+        updatePath(node);
+
+        //Keep RBTree's identity.
+        fixInsert(node);
+        size.incrementAndGet();
+        modCount++;
+    }
+
+    /**
+     * add a batch of values, same result as calling {@link #addNode(Comparable)} for each of them in order.
+     * the batch is sorted first, then
+     * into an empty tree it is bulk loaded;
+     * when it is large compared to the tree, tree and batch are merged in order and the tree is rebuilt
+     * from the merged nodes (existing nodes are reused, not copied);
+     * otherwise every value is inserted starting from the previous insert point (finger search),
+     * climbing only as far as needed instead of descending from the root each time.
+     * @param values
+     * @return number of values that were not in the tree yet
+     */
+    @SuppressWarnings("unchecked")
+    public long addAll(Collection<? extends T> values){
+        Object[] batch = values.toArray();
+        //stable sort, equal values keep their order
+        Arrays.sort(batch);
+        int n = dedupe(batch);
+        if (n == 0){
+            return 0;
+        }
+        long oldSize = getSize();
+        if (oldSize == 0){
+            bulkLoad((Iterator<T>) (Iterator<?>) Arrays.asList(batch).iterator(), n);
+            return n;
+        }
+        if ((long) n * MERGE_RATIO >= oldSize && oldSize + n <= Integer.MAX_VALUE - 8){
+            mergeRebuild(batch, n);
+        }else{
+            fingerInsert(batch, n);
+        }
+        return getSize() - oldSize;
+    }
+
+    /**
+     * collapse runs of equal values of a sorted array to one value, the last one in override mode
+     * (it would have overwritten the others), the first one otherwise
+     * @return number of distinct values, now at the front of batch
+     */
+    @SuppressWarnings("unchecked")
+    private int dedupe(Object[] batch){
+        int n = 0;
+        for (int i = 0; i < batch.length; i++){
+            if (n > 0 && ((T) batch[n - 1]).compareTo((T) batch[i]) == 0){
+                if (overrideMode){
+                    batch[n - 1] = batch[i];
+                }
             }else{
-                x.setRight(node);
+                batch[n++] = batch[i];
             }
+        }
+        return n;
+    }
 
-            //Keep RBTree's identity.
-            fixInsert(node);
+    @SuppressWarnings("unchecked")
+    private void fingerInsert(Object[] batch, int n){
+        RBTreeNode<T> finger = getRoot();
+        for (int i = 0; i < n; i++){
+            T value = (T) batch[i];
+            //climb until value falls inside the subtree, every earlier value is smaller so only the upper bound matters
+            RBTreeNode<T> start = finger;
+            if (i > 0){
+                for (RBTreeNode<T> p = start.getParent(); p != null; p = start.getParent()){
+                    if (p.getLeft() == start && p.getValue().compareTo(value) > 0){
+                        break;
+                    }
+                    start = p;
+                }
+            }
+            RBTreeNode<T> x = findParentNode(start, value);
+            int cmp = x.getValue().compareTo(value);
+            if (cmp == 0){
+                if (overrideMode){
+                    x.setValue(value);
+                    updatePath(x);
+                }
+                finger = x;
+            }else{
+                RBTreeNode<T> node = newNode(value);
+                node.setRed(true);
+                linkNode(node, x, cmp);
+                finger = node;
+            }
+        }
+    }
+
+    /**
+     * merge the tree's nodes with the batch in order and rebuild a balanced tree from them in O(size + n)
+     */
+    @SuppressWarnings("unchecked")
+    private void mergeRebuild(Object[] batch, int n){
+        RBTreeNode<T>[] merged = (RBTreeNode<T>[]) new RBTreeNode<?>[(int) getSize() + n];
+        int count = 0;
+        int i = 0;
+        for (RBTreeNode<T> node = firstNode(); node != null; node = successor(node)){
+            while (i < n && ((T) batch[i]).compareTo(node.getValue()) < 0){
+                merged[count++] = newNode((T) batch[i++]);
+            }
+            if (i < n && ((T) batch[i]).compareTo(node.getValue()) == 0){
+                if (overrideMode){
+                    node.setValue((T) batch[i]);
+                }
+                i++;
+            }
+            merged[count++] = node;
+        }
+        while (i < n){
+            merged[count++] = newNode((T) batch[i++]);
+        }
+
+        RBTreeNode<T> top = linkSorted(merged, 0, 0, count - 1, redLevel(count));
+        root.setLeft(top);
+        setParent(top, root);
+        size.set(count);
+        modCount++;
+    }
+
+    /**
+     * same shape and colors as {@link #bulkLoad(Iterator, long)}, built from existing nodes
+     */
+    private RBTreeNode<T> linkSorted(RBTreeNode<T>[] nodes, int level, int lo, int hi, int redLevel){
+        if (hi < lo){
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        RBTreeNode<T> node = nodes[mid];
+        RBTreeNode<T> left = linkSorted(nodes, level + 1, lo, mid - 1, redLevel);
+        RBTreeNode<T> right = linkSorted(nodes, level + 1, mid + 1, hi, redLevel);
+        node.setRed(level == redLevel);
+        node.setLeft(left);
+        node.setRight(right);
+        node.setParent(null);
+        if (left != null){
+            left.setParent(node);
+        }
+        if (right != null){
+            right.setParent(node);
+        }
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * add every value of other, same result as {@link #addAll(Collection)} with other's values.
+     * join based: other's root splits this tree in two, both halves are united with other's subtrees
+     * (in parallel on the common pool, on the calling thread if a node pool is set) and joined again by black height,
+     * O(m log(n/m + 1)) work for m = the smaller size. this tree's nodes are reused, other is only read.
+     * @param other must not change while the union runs
+     * @return number of values that were not in the tree yet
+     */
+    public long union(RBTree<T> other){
+        return union(other, ForkJoinPool.commonPool());
+    }
+
+    public long union(RBTree<T> other, ForkJoinPool pool){
+        if (other == this){
+            return 0;
+        }
+        long matched = setOperation(UNION, other, pool);
+        return other.getSize() - matched;
+    }
+
+    /**
+     * keep only the values that are also in other, the values in this tree are kept, see {@link #union(RBTree)}
+     * @param other must not change while the intersection runs
+     * @return number of values removed
+     */
+    public long intersect(RBTree<T> other){
+        return intersect(other, ForkJoinPool.commonPool());
+    }
+
+    public long intersect(RBTree<T> other, ForkJoinPool pool){
+        if (other == this){
+            return 0;
+        }
+        long before = getSize();
+        setOperation(INTERSECT, other, pool);
+        return before - getSize();
+    }
+
+    /**
+     * remove every value that is in other, see {@link #union(RBTree)}
+     * @param other must not change while the difference runs
+     * @return number of values removed
+     */
+    public long difference(RBTree<T> other){
+        return difference(other, ForkJoinPool.commonPool());
+    }
+
+    public long difference(RBTree<T> other, ForkJoinPool pool){
+        if (other == this){
+            long before = getSize();
+            recycleSubtree(getRoot());
+            root.setLeft(null);
+            size.set(0);
+            modCount++;
+            return before;
+        }
+        long before = getSize();
+        setOperation(DIFFERENCE, other, pool);
+        return before - getSize();
+    }
+
+    /**
+     * run one set operation and install its result
+     * @return number of other's values found in this tree
+     */
+    private long setOperation(int op, RBTree<T> other, ForkJoinPool pool){
+        RBTreeNode<T> mine = getRoot();
+        RBTreeNode<T> theirs = other.getRoot();
+        LongAdder matched = new LongAdder();
+        LongAdder kept = new LongAdder();
+        SetOperation task = new SetOperation(op, mine, blackHeight(mine), theirs, blackHeight(theirs), matched, kept);
+        //with a node pool the task stays on the calling thread, a thread-local pool must see the caller's free list
+        RBTreeNode<T> top = nodePool == null ? pool.invoke(task) : task.compute();
+        if (top != null){
+            top.makeBlack();
+        }
+        root.setLeft(top);
+        setParent(top, root);
+        long found = matched.sum();
+        //matched nodes that mergeMatch did not keep are gone
+        long dropped = found - kept.sum();
+        if (op == UNION){
+            size.addAndGet(other.getSize() - found - dropped);
+        }else if (op == INTERSECT){
+            size.set(found - dropped);
+        }else{
+            size.addAndGet(-dropped);
+        }
+        modCount++;
+        return found;
+    }
+
+    /**
+     * number of black nodes on a path from node down to null
+     */
+    private static <T extends Comparable<T>> int blackHeight(RBTreeNode<T> node){
+        int height = 0;
+        for (RBTreeNode<T> n = node; n != null; n = n.getLeft()){
+            if (n.isBlack()){
+                height++;
+            }
+        }
+        return height;
+    }
+
+    /**
+     * one step of a join based set operation on detached subtrees:
+     * mine (this tree's nodes, rebuilt) against theirs (the other tree's nodes, only read).
+     * every subtree travels with its black height, so split and join never walk a spine to find it;
+     * a subtree here is a red black tree whose root may be red, the final root is painted black.
+     * split and join leave their results in fields, so a task is used by one thread only.
+     */
+    private final class SetOperation extends RecursiveTask<RBTreeNode<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int op;
+        private final RBTreeNode<T> mine;
+        private final int mineHeight;
+        private final RBTreeNode<T> theirs;
+        private final int theirsHeight;
+        private final LongAdder matched;
+        private final LongAdder kept;
+        //black height of the tree returned by the last join, and of the result once computed
+        private int height;
+        //the last split: values below, the equal node (or null), values above
+        private RBTreeNode<T> lower;
+        private int lowerHeight;
+        private RBTreeNode<T> equal;
+        private RBTreeNode<T> upper;
+        private int upperHeight;
+
+        SetOperation(int op, RBTreeNode<T> mine, int mineHeight, RBTreeNode<T> theirs, int theirsHeight,
+                     LongAdder matched, LongAdder kept){
+            this.op = op;
+            this.mine = mine;
+            this.mineHeight = mineHeight;
+            this.theirs = theirs;
+            this.theirsHeight = theirsHeight;
+            this.matched = matched;
+            this.kept = kept;
+        }
+
+        @Override
+        protected RBTreeNode<T> compute() {
+            if (theirs == null){
+                if (op == INTERSECT){
+                    recycleSubtree(mine);
+                    height = 0;
+                    return null;
+                }
+                height = mineHeight;
+                return mine;
+            }
+            if (mine == null){
+                height = op == UNION ? theirsHeight : 0;
+                return op == UNION ? copy(theirs) : null;
+            }
+            split(mine, mineHeight, theirs.getValue());
+            RBTreeNode<T> found = equal;
+            int childHeight = theirsHeight - (theirs.isBlack() ? 1 : 0);
+            SetOperation left = new SetOperation(op, lower, lowerHeight, theirs.getLeft(), childHeight, matched, kept);
+            SetOperation right = new SetOperation(op, upper, upperHeight, theirs.getRight(), childHeight, matched, kept);
+            RBTreeNode<T> l;
+            RBTreeNode<T> r;
+            //a node pool is not safe to share between tasks, with one the operation runs on the calling thread
+            if (theirsHeight >= PARALLEL_HEIGHT && nodePool == null){
+                left.fork();
+                r = right.compute();
+                l = left.join();
+            }else{
+                l = left.compute();
+                r = right.compute();
+            }
+
+            if (found != null){
+                matched.increment();
+                if (mergeMatch(op, found, theirs)){
+                    kept.increment();
+                }else{
+                    found.setLeft(null);
+                    found.setRight(null);
+                    recycle(found);
+                    found = null;
+                }
+            }else if (op == UNION){
+                found = copyNode(theirs);
+            }
+            if (found != null){
+                return join(l, left.height, found, r, right.height);
+            }
+            return join2(l, left.height, r, right.height);
+        }
+
+        /**
+         * cut node's subtree at value into lower, equal and upper
+         */
+        private void split(RBTreeNode<T> node, int h, T value){
+            if (node == null){
+                lower = upper = equal = null;
+                lowerHeight = upperHeight = 0;
+                return;
+            }
+            int childHeight = h - (node.isBlack() ? 1 : 0);
+            RBTreeNode<T> left = node.getLeft();
+            RBTreeNode<T> right = node.getRight();
+            int cmp = value.compareTo(node.getValue());
+            if (cmp == 0){
+                lower = left;
+                lowerHeight = childHeight;
+                equal = node;
+                upper = right;
+                upperHeight = childHeight;
+            }else if (cmp < 0){
+                split(left, childHeight, value);
+                upper = join(upper, upperHeight, node, right, childHeight);
+                upperHeight = height;
+            }else{
+                split(right, childHeight, value);
+                lower = join(left, childHeight, node, lower, lowerHeight);
+                lowerHeight = height;
+            }
+        }
+
+        /**
+         * cut the largest node off node's subtree into equal, the rest into lower
+         */
+        private void splitLast(RBTreeNode<T> node, int h){
+            int childHeight = h - (node.isBlack() ? 1 : 0);
+            if (node.getRight() == null){
+                lower = node.getLeft();
+                lowerHeight = childHeight;
+                equal = node;
+                return;
+            }
+            splitLast(node.getRight(), childHeight);
+            lower = join(node.getLeft(), childHeight, node, lower, lowerHeight);
+            lowerHeight = height;
+        }
+
+        /**
+         * join two trees with everything in left below node and everything in right above it.
+         * the node hangs where the taller tree's spine reaches the other tree's black height,
+         * one red-red violation may follow, repaired by recoloring or one rotation per level on the way up
+         */
+        private RBTreeNode<T> join(RBTreeNode<T> left, int leftHeight, RBTreeNode<T> node, RBTreeNode<T> right, int rightHeight){
+            RBTreeNode<T> top;
+            if (leftHeight > rightHeight){
+                top = joinRight(left, leftHeight, node, right, rightHeight);
+                height = leftHeight;
+                if (top.isRed() && !isBlack(top.getRight())){
+                    top.makeBlack();
+                    height++;
+                }
+            }else if (leftHeight < rightHeight){
+                top = joinLeft(left, leftHeight, node, right, rightHeight);
+                height = rightHeight;
+                if (top.isRed() && !isBlack(top.getLeft())){
+                    top.makeBlack();
+                    height++;
+                }
+            }else{
+                boolean red = isBlack(left) && isBlack(right);
+                top = link(node, left, right, red);
+                height = red ? leftHeight : leftHeight + 1;
+            }
+            return top;
+        }
+
+        /**
+         * join without a middle node, the largest node of left takes its place
+         */
+        private RBTreeNode<T> join2(RBTreeNode<T> left, int leftHeight, RBTreeNode<T> right, int rightHeight){
+            if (left == null){
+                height = rightHeight;
+                return right;
+            }
+            if (right == null){
+                height = leftHeight;
+                return left;
+            }
+            splitLast(left, leftHeight);
+            return join(lower, lowerHeight, equal, right, rightHeight);
+        }
+
+        private RBTreeNode<T> joinRight(RBTreeNode<T> left, int leftHeight, RBTreeNode<T> node, RBTreeNode<T> right, int rightHeight){
+            if (isBlack(left) && leftHeight == rightHeight){
+                return link(node, left, right, true);
+            }
+            int childHeight = leftHeight - (left.isBlack() ? 1 : 0);
+            RBTreeNode<T> joined = joinRight(left.getRight(), childHeight, node, right, rightHeight);
+            link(left, left.getLeft(), joined, left.isRed());
+            if (left.isBlack() && joined.isRed() && !isBlack(joined.getRight())){
+                //red-red on the right spine: RR type, rotate left
+                joined.getRight().makeBlack();
+                link(left, left.getLeft(), joined.getLeft(), false);
+                return link(joined, left, joined.getRight(), true);
+            }
+            return left;
+        }
+
+        private RBTreeNode<T> joinLeft(RBTreeNode<T> left, int leftHeight, RBTreeNode<T> node, RBTreeNode<T> right, int rightHeight){
+            if (isBlack(right) && leftHeight == rightHeight){
+                return link(node, left, right, true);
+            }
+            int childHeight = rightHeight - (right.isBlack() ? 1 : 0);
+            RBTreeNode<T> joined = joinLeft(left, leftHeight, node, right.getLeft(), childHeight);
+            link(right, joined, right.getRight(), right.isRed());
+            if (right.isBlack() && joined.isRed() && !isBlack(joined.getLeft())){
+                //red-red on the left spine: LL type, rotate right
+                joined.getLeft().makeBlack();
+                link(right, joined.getRight(), right.getRight(), false);
+                return link(joined, joined.getLeft(), right, true);
+            }
+            return right;
+        }
+
+        /**
+         * hang left and right under node, recolor it and update its augmentation
+         */
+        private RBTreeNode<T> link(RBTreeNode<T> node, RBTreeNode<T> left, RBTreeNode<T> right, boolean red){
+            node.setLeft(left);
+            node.setRight(right);
+            if (left != null){
+                left.setParent(node);
+            }
+            if (right != null){
+                right.setParent(node);
+            }
+            node.setRed(red);
+            updateNode(node);
+            return node;
+        }
+
+        /**
+         * new nodes with the same shape and colors as node's subtree
+         */
+        private RBTreeNode<T> copy(RBTreeNode<T> node){
+            if (node == null){
+                return null;
+            }
+            return link(copyNode(node), copy(node.getLeft()), copy(node.getRight()), node.isRed());
+        }
+    }
+
+    /**
+     * remove the node holding value
+     * @param value
+     * @return the removed value, null if value not exist
+     */
+    public T removeNode(T value){
+        RBTreeNode<T> node = findNode(value);
+        if (node == null){
+            return null;
+        }
+        T removed = node.getValue();
+        deleteNode(node);
+        return removed;
+    }
+
+    /**
+     * unlink node from the tree.
+     * a node with two children is replaced by its successor node (the node itself moves,
+     * values are never copied), so references to other nodes stay valid.
+     * @param node
+     */
+    void deleteNode(RBTreeNode<T> node){
+        //x takes the place of the node actually unlinked, xParent is x's new parent(x may be null)
+        RBTreeNode<T> x;
+        RBTreeNode<T> xParent;
+        boolean removedBlack;
+        if (node.getLeft() == null){
+            x = node.getRight();
+            xParent = node.getParent();
+            removedBlack = node.isBlack();
+            transplant(node, x);
+        }else if (node.getRight() == null){
+            x = node.getLeft();
+            xParent = node.getParent();
+            removedBlack = node.isBlack();
+            transplant(node, x);
+        }else{
+            //successor has no left child, it is the one unlinked from its old place
+            RBTreeNode<T> successor = node.getRight();
+            while (successor.getLeft() != null){
+                successor = successor.getLeft();
+            }
+            removedBlack = successor.isBlack();
+            x = successor.getRight();
+            if (successor.getParent() == node){
+                xParent = successor;
+            }else{
+                xParent = successor.getParent();
+                transplant(successor, x);
+                successor.setRight(node.getRight());
+                setParent(successor.getRight(), successor);
+            }
+            transplant(node, successor);
+            successor.setLeft(node.getLeft());
+            setParent(successor.getLeft(), successor);
+            successor.setRed(node.isRed());
+        }
+        updatePath(xParent);
+
+        //a black node is gone, one path is short of a black
+        if (removedBlack){
+            fixRemove(x, xParent);
+        }
+
+        node.setLeft(null);
+        node.setRight(null);
+        node.setParent(null);
+        size.decrementAndGet();
+        modCount++;
+        recycle(node);
+    }
+
+    /**
+     * build an RBTree from values in strictly ascending order, see {@link #bulkLoad(Iterator, long)}
+     * @param sorted
+     * @param size
+     * @return
+     */
+    public static <T extends Comparable<T>> RBTree<T> fromSorted(Iterator<T> sorted, long size){
+        RBTree<T> tree = new RBTree<T>();
+        tree.bulkLoad(sorted, size);
+        return tree;
+    }
+
+    /**
+     * fill an empty tree with the first size values of sorted in O(n),
+     * no descent and no rotation: the middle value becomes the root, each half is built the same way,
+     * every level is black except the deepest one of an incomplete tree, which is red.
+     * @param sorted values in strictly ascending order
+     * @param size number of values to take
+     */
+    public void bulkLoad(Iterator<T> sorted, long size){
+        if (root.getLeft() != null){
+            throw new IllegalStateException("bulk load needs an empty tree");
+        }
+        if (size < 0){
+            throw new IllegalArgumentException("size is negative: " + size);
+        }
+        RBTreeNode<T> top = new SortedBuilder(sorted).build(0, 0, size - 1, redLevel(size));
+        root.setLeft(top);
+        setParent(top, root);
+        this.size.set(size);
+        modCount++;
+    }
+
+    /**
+     * the depth whose nodes are red in a tree built from size sorted values,
+     * the only level that may be incomplete
+     */
+    private static int redLevel(long size){
+        int level = 0;
+        for (long m = size - 1; m >= 0; m = m / 2 - 1){
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * pulls values from the iterator in order while the tree is built middle first
+     */
+    private class SortedBuilder {
+        private final Iterator<T> sorted;
+        private T last;
+
+        SortedBuilder(Iterator<T> sorted){
+            this.sorted = sorted;
+        }
+
+        RBTreeNode<T> build(int level, long lo, long hi, int redLevel){
+            if (hi < lo){
+                return null;
+            }
+            long mid = (lo + hi) >>> 1;
+            RBTreeNode<T> left = build(level + 1, lo, mid - 1, redLevel);
+
+            T value = sorted.next();
+            if (last != null && last.compareTo(value) >= 0){
+                throw new IllegalArgumentException("values are not in strictly ascending order: " + last + ", " + value);
+            }
+            last = value;
+            RBTreeNode<T> node = newNode(value);
+            node.setRed(level == redLevel);
+
+            RBTreeNode<T> right = build(level + 1, mid + 1, hi, redLevel);
+            node.setLeft(left);
+            node.setRight(right);
+            if (left != null){
+                left.setParent(node);
+            }
+            if (right != null){
+                right.setParent(node);
+            }
+            updateNode(node);
+            return node;
         }
-        size.incrementAndGet();
-        return null;
     }
 
     /**
@@ -218,6 +867,7 @@ public class RBTree<T extends Comparable<T>> {
      */
     private void fixInsert(RBTreeNode<T> node) {
         RBTreeNode<T> parent = node.getParent();
+        int rotations = 0;
 
         //whether need to fix
         while (parent != null && parent.isRed()) {
@@ -231,8 +881,10 @@ public class RBTree<T extends Comparable<T>> {
                     boolean isRight = node == parent.getRight();
                     if (isRight) {
                         rotateLeft(parent);
+                        rotations++;
                     }
                     rotateRight(ancestor);
+                    rotations++;
 
                     if (isRight) {
                         //change the color of current and ancestor
@@ -250,8 +902,10 @@ public class RBTree<T extends Comparable<T>> {
                     boolean isLeft = node == parent.getLeft();
                     if (isLeft) {
                         rotateRight(parent);
+                        rotations++;
                     }
                     rotateLeft(ancestor);
+                    rotations++;
 
                     if (isLeft) {
                         node.makeBlack();
@@ -282,6 +936,120 @@ public class RBTree<T extends Comparable<T>> {
         RBTreeNode<T> root = getRoot();
         root.makeBlack();
         setParent(root, null);
+        metrics.recordRotations(rotations);
+    }
+
+    /**
+     * red black tree remove fix, x carries an extra black (x may be null, a black leaf).
+     * if x's sibling w is red:
+     *          case 1: rotate parent towards x and swap colors, the new sibling is black
+     * else w is black:
+     *          case 2: both children of w are black, make w red and move the extra black up to the parent
+     *          case 3: w's far child is black, rotate w away from x so its near red child becomes the sibling
+     *          case 4: w's far child is red, rotate parent towards x, recolor, the extra black is gone
+     * at most three rotations in total.
+     * @param x
+     * @param parent x's parent
+     */
+    private void fixRemove(RBTreeNode<T> x, RBTreeNode<T> parent) {
+        int rotations = 0;
+        while (parent != null && isBlack(x)) {
+            if (x == parent.getLeft()) {
+                RBTreeNode<T> w = parent.getRight();
+                if (w.isRed()) {
+                    //case 1
+                    w.makeBlack();
+                    parent.makeRed();
+                    rotateLeft(parent);
+                    rotations++;
+                    w = parent.getRight();
+                }
+                if (isBlack(w.getLeft()) && isBlack(w.getRight())) {
+                    //case 2
+                    w.makeRed();
+                    x = parent;
+                    parent = x.getParent();
+                } else {
+                    if (isBlack(w.getRight())) {
+                        //case 3
+                        w.getLeft().makeBlack();
+                        w.makeRed();
+                        rotateRight(w);
+                        rotations++;
+                        w = parent.getRight();
+                    }
+                    //case 4
+                    w.setRed(parent.isRed());
+                    parent.makeBlack();
+                    w.getRight().makeBlack();
+                    rotateLeft(parent);
+                    rotations++;
+                    x = getRoot();
+                    parent = null;
+                }
+            } else {
+                RBTreeNode<T> w = parent.getLeft();
+                if (w.isRed()) {
+                    //case 1
+                    w.makeBlack();
+                    parent.makeRed();
+                    rotateRight(parent);
+                    rotations++;
+                    w = parent.getLeft();
+                }
+                if (isBlack(w.getLeft()) && isBlack(w.getRight())) {
+                    //case 2
+                    w.makeRed();
+                    x = parent;
+                    parent = x.getParent();
+                } else {
+                    if (isBlack(w.getLeft())) {
+                        //case 3
+                        w.getRight().makeBlack();
+                        w.makeRed();
+                        rotateLeft(w);
+                        rotations++;
+                        w = parent.getLeft();
+                    }
+                    //case 4
+                    w.setRed(parent.isRed());
+                    parent.makeBlack();
+                    w.getLeft().makeBlack();
+                    rotateRight(parent);
+                    rotations++;
+                    x = getRoot();
+                    parent = null;
+                }
+            }
+        }
+        if (x != null) {
+            x.makeBlack();
+        }
+        metrics.recordRotations(rotations);
+    }
+
+    /**
+     * null node is black
+     */
+    private static <T extends Comparable<T>> boolean isBlack(RBTreeNode<T> node) {
+        return node == null || node.isBlack();
+    }
+
+    /**
+     * put v in u's place under u's parent, v may be null
+     * @param u
+     * @param v
+     */
+    private void transplant(RBTreeNode<T> u, RBTreeNode<T> v) {
+        RBTreeNode<T> parent = u.getParent();
+        if (parent == null) {
+            root.setLeft(v);
+        } else if (parent.getLeft() == u) {
+            parent.setLeft(v);
+        } else {
+            parent.setRight(v);
+        }
+        setParent(v, parent);
     }
 
     /**
@@ -317,6 +1085,10 @@ public class RBTree<T extends Comparable<T>> {
             }
         }
         setParent(left, parent);
+
+        //node is now below left
+        updateNode(node);
+        updateNode(left);
     }
 
     /**
@@ -353,8 +1125,115 @@ public class RBTree<T extends Comparable<T>> {
             }
         }
         setParent(right, parent);
+
+        //node is now below right
+        updateNode(node);
+        updateNode(right);
+    }
+
+
+    /**
+     * the node holding value, taken from the pool if there is a free one, created otherwise
+     * @param value
+     * @return
+     */
+    RBTreeNode<T> newNode(T value){
+        RBTreeNode<T> node = nodePool == null ? null : nodePool.take();
+        if (node == null){
+            return createNode(value);
+        }
+        node.setValue(value);
+        resetNode(node);
+        return node;
+    }
+
+    /**
+     * allocate the node holding value, augmented trees create their own node type
+     * @param value
+     * @return
+     */
+    RBTreeNode<T> createNode(T value){
+        return new RBTreeNode<T>(value);
+    }
+
+    /**
+     * bring a pooled node, whose value is already set, back to the state createNode leaves it in.
+     * augmented trees reset their own fields here
+     * @param node
+     */
+    void resetNode(RBTreeNode<T> node){
+    }
+
+    /**
+     * settle a value found in both trees during a set operation, may run on several threads at once.
+     * union keeps the node (taking other's value in override mode), intersect keeps it, difference drops it
+     * @param op UNION, INTERSECT or DIFFERENCE
+     * @param node this tree's node
+     * @param other the other tree's node holding an equal value, only read
+     * @return whether node stays in the tree
+     */
+    boolean mergeMatch(int op, RBTreeNode<T> node, RBTreeNode<T> other){
+        if (op == UNION && overrideMode){
+            node.setValue(other.getValue());
+        }
+        return op != DIFFERENCE;
+    }
+
+    /**
+     * the node a union adds for a value only the other tree holds, may run on several threads at once
+     * @param other the other tree's node, only read
+     * @return
+     */
+    RBTreeNode<T> copyNode(RBTreeNode<T> other){
+        return newNode(other.getValue());
+    }
+
+    /**
+     * hand an unlinked node to the pool, if there is one
+     * @param node
+     */
+    private void recycle(RBTreeNode<T> node){
+        if (nodePool != null){
+            node.setValue(null);
+            node.setRed(false);
+            nodePool.give(node);
+        }
+    }
+
+    /**
+     * hand every node of a detached subtree to the pool, if there is one
+     * @param node
+     */
+    private void recycleSubtree(RBTreeNode<T> node){
+        if (nodePool == null || node == null){
+            return;
+        }
+        RBTreeNode<T> left = node.getLeft();
+        RBTreeNode<T> right = node.getRight();
+        node.setLeft(null);
+        node.setRight(null);
+        node.setParent(null);
+        recycle(node);
+        recycleSubtree(left);
+        recycleSubtree(right);
+    }
+
+    /**
+     * augmentation hook, recompute the extra data of node from its children.
+     * called after a rotation for the two rotated nodes, lower one first.
+     * plain tree keeps nothing extra
+     * @param node
+     */
+    void updateNode(RBTreeNode<T> node){
     }
 
+    /**
+     * augmentation hook, recompute node and then every ancestor up to the root.
+     * called after a node is linked into the tree, before fixInsert
+     * @param node
+     */
+    void updatePath(RBTreeNode<T> node){
+    }
 
     /**
      * get uncle node
@@ -379,18 +1258,21 @@ public class RBTree<T extends Comparable<T>> {
     /**
      * find the parent node to hold node ,if parent value equals node.value return parent.
      * be used to find insert position
-     * @param node
+     * @param start node to search down from, the root or a finger
+     * @param value
      * @return
      */
-    private RBTreeNode<T> findParentNode(RBTreeNode<T> node) {
-        //get root node
-        RBTreeNode<T> parent = getRoot();
+    RBTreeNode<T> findParentNode(RBTreeNode<T> start, T value) {
+        RBTreeNode<T> parent = start;
         RBTreeNode<T> cur = parent;
+        int depth = 0;
         while (cur != null){
-            int cmp = cur.getValue().compareTo(node.getValue());
+            depth++;
+            int cmp = cur.getValue().compareTo(value);
             if (cmp == 0){
                 //the same value, return it
-                return cur;
+                parent = cur;
+                break;
             }else if (cmp < 0){
                 //Greater than, right
                 parent = cur;
@@ -401,12 +1283,286 @@ public class RBTree<T extends Comparable<T>> {
                 cur = cur.getLeft();
             }
         }
-
+        metrics.recordDescent(depth, depth);
         return parent;
     }
 
 
 
+    /**
+     * ascending iterator, walks successor links with O(1) extra memory
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator(){
+        return new NodeIterator(firstNode(), null, false);
+    }
+
+    /**
+     * descending iterator, walks predecessor links with O(1) extra memory
+     * @return
+     */
+    public Iterator<T> descendingIterator(){
+        return new NodeIterator(lastNode(), null, true);
+    }
+
+    /**
+     * live view of the values in [lo, hi)
+     * @param lo inclusive
+     * @param hi exclusive
+     * @return
+     */
+    public Iterable<T> subSet(final T lo, final T hi){
+        if (lo.compareTo(hi) > 0){
+            throw new IllegalArgumentException("lo > hi: " + lo + ", " + hi);
+        }
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new NodeIterator(ceilingNode(lo), hi, false);
+            }
+        };
+    }
+
+    /**
+     * live view of the values less than hi
+     * @param hi exclusive
+     * @return
+     */
+    public Iterable<T> headSet(final T hi){
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new NodeIterator(firstNode(), hi, false);
+            }
+        };
+    }
+
+    /**
+     * live view of the values greater than or equal to lo
+     * @param lo inclusive
+     * @return
+     */
+    public Iterable<T> tailSet(final T lo){
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new NodeIterator(ceilingNode(lo), null, false);
+            }
+        };
+    }
+
+    /**
+     * ascending spliterator that splits at the root, then its children and so on,
+     * DISTINCT in both modes since an equal value is never linked. fails fast like the iterators
+     * @return
+     */
+    @Override
+    public Spliterator<T> spliterator(){
+        return new NodeSpliterator(null, getRoot(), getSize(),
+                Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL, modCount);
+    }
+
+    public Stream<T> stream(){
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * the tree must not change while the stream runs
+     * @return
+     */
+    public Stream<T> parallelStream(){
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * compile the current values into a read only {@link FrozenTree}, later changes are not seen
+     * @return
+     */
+    public FrozenTree<T> freeze(){
+        return FrozenTree.fromSorted(iterator(), getSize());
+    }
+
+    private class NodeSpliterator extends TreeSpliterator<RBTreeNode<T>, T> {
+        private final int expectedModCount;
+
+        NodeSpliterator(RBTreeNode<T> head, RBTreeNode<T> subtree, long estimate, int characteristics, int expectedModCount){
+            super(head, subtree, estimate, characteristics);
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        RBTreeNode<T> left(RBTreeNode<T> node) {
+            return node.getLeft();
+        }
+
+        @Override
+        RBTreeNode<T> right(RBTreeNode<T> node) {
+            return node.getRight();
+        }
+
+        @Override
+        T value(RBTreeNode<T> node) {
+            return node.getValue();
+        }
+
+        @Override
+        TreeSpliterator<RBTreeNode<T>, T> split(RBTreeNode<T> head, RBTreeNode<T> subtree, long estimate, int characteristics) {
+            return new NodeSpliterator(head, subtree, estimate, characteristics, expectedModCount);
+        }
+
+        @Override
+        void checkForComodification() {
+            if (modCount != expectedModCount){
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * the node with the smallest value, null if empty
+     */
+    RBTreeNode<T> firstNode(){
+        RBTreeNode<T> node = getRoot();
+        if (node != null){
+            while (node.getLeft() != null){
+                node = node.getLeft();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * the node with the largest value, null if empty
+     */
+    RBTreeNode<T> lastNode(){
+        RBTreeNode<T> node = getRoot();
+        if (node != null){
+            while (node.getRight() != null){
+                node = node.getRight();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * the node with the smallest value greater than or equal to value, null if none
+     */
+    RBTreeNode<T> ceilingNode(T value){
+        RBTreeNode<T> cur = getRoot();
+        RBTreeNode<T> ceiling = null;
+        while (cur != null){
+            int cmp = cur.getValue().compareTo(value);
+            if (cmp < 0){
+                cur = cur.getRight();
+            }else if (cmp > 0){
+                ceiling = cur;
+                cur = cur.getLeft();
+            }else{
+                return cur;
+            }
+        }
+        return ceiling;
+    }
+
+    /**
+     * in-order next node: leftmost of the right subtree,
+     * otherwise the first ancestor reached from a left child
+     */
+    static <T extends Comparable<T>> RBTreeNode<T> successor(RBTreeNode<T> node){
+        RBTreeNode<T> next = node.getRight();
+        if (next != null){
+            while (next.getLeft() != null){
+                next = next.getLeft();
+            }
+            return next;
+        }
+        next = node.getParent();
+        while (next != null && node == next.getRight()){
+            node = next;
+            next = next.getParent();
+        }
+        return next;
+    }
+
+    /**
+     * in-order previous node, mirror of {@link #successor(RBTreeNode)}
+     */
+    static <T extends Comparable<T>> RBTreeNode<T> predecessor(RBTreeNode<T> node){
+        RBTreeNode<T> prev = node.getLeft();
+        if (prev != null){
+            while (prev.getRight() != null){
+                prev = prev.getRight();
+            }
+            return prev;
+        }
+        prev = node.getParent();
+        while (prev != null && node == prev.getLeft()){
+            node = prev;
+            prev = prev.getParent();
+        }
+        return prev;
+    }
+
+    /**
+     * iterator over the nodes starting at next, one direction,
+     * ascending iterators stop before the first value not less than bound
+     */
+    private class NodeIterator implements Iterator<T> {
+        private RBTreeNode<T> next;
+        private RBTreeNode<T> lastReturned;
+        private final T bound;
+        private final boolean descending;
+        private int expectedModCount = modCount;
+
+        NodeIterator(RBTreeNode<T> first, T bound, boolean descending){
+            this.next = first;
+            this.bound = bound;
+            this.descending = descending;
+            if (first != null && bound != null && first.getValue().compareTo(bound) >= 0){
+                this.next = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            RBTreeNode<T> node = next;
+            if (node == null){
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount){
+                throw new ConcurrentModificationException();
+            }
+            next = descending ? predecessor(node) : successor(node);
+            if (next != null && bound != null && next.getValue().compareTo(bound) >= 0){
+                next = null;
+            }
+            lastReturned = node;
+            return node.getValue();
+        }
+
+        /**
+         * the removed node's successor/predecessor is moved, never copied, so next stays valid
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null){
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount){
+                throw new ConcurrentModificationException();
+            }
+            deleteNode(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+
     /**
      * debug method,it used print the given node and its children nodes,
      * every layer output in one line
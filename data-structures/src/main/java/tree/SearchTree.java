@@ -1,6 +1,12 @@
 package tree;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -62,12 +68,49 @@ class SearchTreeNode<T extends Comparable<T>> {
 
 }
 
-public class SearchTree<T extends Comparable<T>> {
+public class SearchTree<T extends Comparable<T>> implements Iterable<T> {
+    //批量不小于树的1/MERGE_RATIO时，addAll归并后重建整棵树
+    private static final int MERGE_RATIO = 4;
+    //finger模式：某个孩子的结点数超过子树的ALPHA时重建该子树（替罪羊树）
+    private static final double ALPHA = 0.7;
+    private static final double LOG_INV_ALPHA = Math.log(1 / ALPHA);
+
     private SearchTreeNode<T> root;
     private AtomicLong size = new AtomicLong(0);
+    //热路径计数，调用setMetrics后才开启
+    private TreeMetrics metrics = TreeMetrics.NOOP;
+    //删除的结点放回池中，新结点先从池中取，调用setNodePool后才开启
+    private NodePool<SearchTreeNode<T>> nodePool;
+
+    //finger模式：从根到上次访问结点的路径，以及路径上每棵子树的开区间上下界（null表示无界），
+    //查找从上下界包含该值的最深结点开始
+    private final boolean fingerSearch;
+    private final ArrayList<SearchTreeNode<T>> fingerPath;
+    private final ArrayList<T> fingerLow;
+    private final ArrayList<T> fingerHigh;
+    //上次整树重建以来的最大结点数
+    private long maxSize;
 
     public SearchTree() {
+        this(false);
+    }
+
+    /**
+     * finger模式下查找也会移动finger（修改fingerPath等状态），即使只有find也需要独占访问，不能并发读
+     * @param fingerSearch true：每次查找从上次访问的结点开始而不是从根开始，
+     *                     （近似）顺序的值只需O(1)，距离为d时O(log d)；
+     *                     过深的子树会被重建（替罪羊树，alpha 0.7），任何插入顺序下深度都保持O(log n)
+     */
+    public SearchTree(boolean fingerSearch) {
         this.root = new SearchTreeNode<T>();
+        this.fingerSearch = fingerSearch;
+        this.fingerPath = fingerSearch ? new ArrayList<SearchTreeNode<T>>() : null;
+        this.fingerLow = fingerSearch ? new ArrayList<T>() : null;
+        this.fingerHigh = fingerSearch ? new ArrayList<T>() : null;
+    }
+
+    public boolean isFingerSearch() {
+        return fingerSearch;
     }
 
     public SearchTreeNode<T> getRoot() {
@@ -78,14 +121,66 @@ public class SearchTree<T extends Comparable<T>> {
         return size.get();
     }
 
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 每次向下查找都报告给metrics，不平衡的树表现为很深的查找
+     * @param metrics 为null时关闭计数
+     */
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics == null ? TreeMetrics.NOOP : metrics;
+    }
+
+    public NodePool<SearchTreeNode<T>> getNodePool() {
+        return nodePool;
+    }
+
+    /**
+     * 通过pool回收结点：removeNode(value)把结点放回池中，新结点先从池中取。
+     * 删除的结点会被复用，删除之后不要再持有结点的引用
+     * @param pool 为null时关闭回收
+     */
+    public void setNodePool(NodePool<SearchTreeNode<T>> pool) {
+        this.nodePool = pool;
+    }
+
+    private SearchTreeNode<T> newNode(T value) {
+        SearchTreeNode<T> node = nodePool == null ? null : nodePool.take();
+        if (node == null) {
+            return new SearchTreeNode<T>(value);
+        }
+        node.setValue(value);
+        return node;
+    }
+
+    /**
+     * 回收已摘下的结点
+     */
+    private void recycle(SearchTreeNode<T> node) {
+        if (nodePool != null) {
+            node.setValue(null);
+            node.setLeft(null);
+            node.setRight(null);
+            nodePool.give(node);
+        }
+    }
+
     /**
      * 添加结点
      * @param value
      * @return
      */
     public T addNode(T value) {
-        SearchTreeNode<T> node = new SearchTreeNode<T>(value);
-        return addNode(node);
+        SearchTreeNode<T> node = newNode(value);
+        long before = size.get();
+        T result = addNode(node);
+        if (size.get() == before) {
+            //值已存在，结点未挂入树中
+            recycle(node);
+        }
+        return result;
     }
 
     /**
@@ -97,6 +192,9 @@ public class SearchTree<T extends Comparable<T>> {
         //init node
         node.setLeft(null);
         node.setRight(null);
+        if (fingerSearch && root.getLeft() != null) {
+            return fingerAdd(node);
+        }
 
         //Determine whether the header node is empty
         if (root.getLeft() == null) {
@@ -124,6 +222,138 @@ public class SearchTree<T extends Comparable<T>> {
         return node.getValue();
     }
 
+    /**
+     * 批量添加，结果与按顺序逐个调用 {@link #addNode(Comparable)} 相同（已存在的值保留）。
+     * 先排序去重，批量相对树较大（含空树）时与树中结点按序归并，重建为平衡树（原结点复用）；
+     * 否则按升序插入，并保留上一次插入的路径，下一个值只需退回到包含它的子树再向下查找，
+     * 不必每次都从根结点开始。
+     * @param values
+     * @return 新加入的值的个数
+     */
+    @SuppressWarnings("unchecked")
+    public long addAll(Collection<? extends T> values) {
+        Object[] batch = values.toArray();
+        //稳定排序，相等的值保持原顺序，保留第一个
+        Arrays.sort(batch);
+        int n = 0;
+        for (int i = 0; i < batch.length; i++) {
+            if (n == 0 || ((T) batch[n - 1]).compareTo((T) batch[i]) != 0) {
+                batch[n++] = batch[i];
+            }
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long oldSize = getSize();
+        if ((long) n * MERGE_RATIO >= oldSize && oldSize + n <= Integer.MAX_VALUE - 8) {
+            mergeRebuild(batch, n);
+        } else if (fingerSearch) {
+            //finger同样利用了局部性，并且保持深度上界
+            for (int i = 0; i < n; i++) {
+                addNode((T) batch[i]);
+            }
+        } else {
+            cursorInsert(batch, n);
+        }
+        return getSize() - oldSize;
+    }
+
+    /**
+     * 按升序插入，path为上一次插入时从根到插入点的路径
+     */
+    @SuppressWarnings("unchecked")
+    private void cursorInsert(Object[] batch, int n) {
+        ArrayList<SearchTreeNode<T>> path = new ArrayList<SearchTreeNode<T>>();
+        path.add(getRoot());
+        for (int i = 0; i < n; i++) {
+            T value = (T) batch[i];
+            //回退到value所在的子树：之前的值都更小，只需看上界
+            while (path.size() > 1) {
+                SearchTreeNode<T> top = path.get(path.size() - 1);
+                SearchTreeNode<T> parent = path.get(path.size() - 2);
+                if (parent.getLeft() == top && parent.getValue().compareTo(value) > 0) {
+                    break;
+                }
+                path.remove(path.size() - 1);
+            }
+
+            SearchTreeNode<T> cur = path.get(path.size() - 1);
+            int depth = 0;
+            while (true) {
+                depth++;
+                int cmp = cur.getValue().compareTo(value);
+                if (cmp == 0) {
+                    //值已存在，忽略
+                    break;
+                }
+                SearchTreeNode<T> next = cmp > 0 ? cur.getLeft() : cur.getRight();
+                if (next == null) {
+                    next = newNode(value);
+                    if (cmp > 0) {
+                        cur.setLeft(next);
+                    } else {
+                        cur.setRight(next);
+                    }
+                    size.incrementAndGet();
+                    path.add(next);
+                    break;
+                }
+                path.add(next);
+                cur = next;
+            }
+            metrics.recordDescent(depth, depth);
+        }
+    }
+
+    /**
+     * 树中结点与批量值按序归并，再重建为平衡树，O(size + n)
+     */
+    @SuppressWarnings("unchecked")
+    private void mergeRebuild(Object[] batch, int n) {
+        SearchTreeNode<T>[] merged = (SearchTreeNode<T>[]) new SearchTreeNode<?>[(int) getSize() + n];
+        int count = 0;
+        int i = 0;
+        ArrayDeque<SearchTreeNode<T>> stack = new ArrayDeque<SearchTreeNode<T>>();
+        for (SearchTreeNode<T> node = getRoot(); node != null; node = node.getLeft()) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            SearchTreeNode<T> node = stack.pop();
+            for (SearchTreeNode<T> r = node.getRight(); r != null; r = r.getLeft()) {
+                stack.push(r);
+            }
+            while (i < n && ((T) batch[i]).compareTo(node.getValue()) < 0) {
+                merged[count++] = newNode((T) batch[i++]);
+            }
+            if (i < n && ((T) batch[i]).compareTo(node.getValue()) == 0) {
+                i++;
+            }
+            merged[count++] = node;
+        }
+        while (i < n) {
+            merged[count++] = newNode((T) batch[i++]);
+        }
+        root.setLeft(linkBalanced(merged, 0, count - 1));
+        size.set(count);
+        maxSize = count;
+        clearFinger();
+    }
+
+    /**
+     * 用有序结点数组nodes[lo, hi]建出平衡树：中间结点作根，两半递归
+     * @return 子树的根
+     */
+    SearchTreeNode<T> linkBalanced(SearchTreeNode<T>[] nodes, int lo, int hi) {
+        if (hi < lo) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        SearchTreeNode<T> node = nodes[mid];
+        node.setLeft(linkBalanced(nodes, lo, mid - 1));
+        node.setRight(linkBalanced(nodes, mid + 1, hi));
+        return node;
+    }
+
     /**
      * 找到插入位置
      * @param node
@@ -132,8 +362,10 @@ public class SearchTree<T extends Comparable<T>> {
     private SearchTreeNode<T> findParentNode(SearchTreeNode<T> node) {
         SearchTreeNode<T> parent = getRoot();
         SearchTreeNode<T> cur = parent;
+        int depth = 0;
 
         while (cur != null) {
+            depth++;
             int cmp = cur.getValue().compareTo(node.getValue());
             if (cmp > 0) {
                 //当前值大，向左
@@ -144,27 +376,221 @@ public class SearchTree<T extends Comparable<T>> {
                 parent = cur;
                 cur = cur.getRight();
             } else {
-                return cur;
+                parent = cur;
+                break;
             }
         }
+        metrics.recordDescent(depth, depth);
         return parent;
     }
 
 
+    /**
+     * 查找结点。finger模式下会移动finger，查找同样需要独占访问
+     * @param value
+     * @return 树中相等的值，不存在返回null
+     */
+    public T find(T value) {
+        if (fingerSearch) {
+            SearchTreeNode<T> x = root.getLeft() == null ? null : fingerDescend(value);
+            return x != null && x.getValue().compareTo(value) == 0 ? x.getValue() : null;
+        }
+        SearchTreeNode<T> node = findRemoveNode(value);
+        return node == null ? null : node.getValue();
+    }
+
+    /**
+     * finger模式插入：从finger向下查找并挂上结点，过深时在替罪羊结点处重建
+     */
+    private T fingerAdd(SearchTreeNode<T> node) {
+        T value = node.getValue();
+        SearchTreeNode<T> x = fingerDescend(value);
+        int cmp = x.getValue().compareTo(value);
+        if (cmp == 0) {
+            return x.getValue();
+        }
+        int top = fingerPath.size() - 1;
+        if (cmp > 0) {
+            x.setLeft(node);
+            pushFinger(node, fingerLow.get(top), x.getValue());
+        } else {
+            x.setRight(node);
+            pushFinger(node, x.getValue(), fingerHigh.get(top));
+        }
+        long n = size.incrementAndGet();
+        maxSize = Math.max(maxSize, n);
+
+        //新结点的深度（根为0）超过log_{1/alpha}(n)：必有某个祖先不平衡
+        if (fingerPath.size() - 1 > Math.log(n) / LOG_INV_ALPHA) {
+            rebuildScapegoat();
+        }
+        return value;
+    }
+
+    /**
+     * 把finger移到value：先退回到上下界包含value的最深结点，再向下查找
+     * @return 值为value的结点，或value应挂在其下的结点
+     */
+    private SearchTreeNode<T> fingerDescend(T value) {
+        if (fingerPath.isEmpty()) {
+            pushFinger(root.getLeft(), null, null);
+        }
+        int comparisons = 0;
+        while (fingerPath.size() > 1) {
+            int top = fingerPath.size() - 1;
+            T low = fingerLow.get(top);
+            T high = fingerHigh.get(top);
+            comparisons += 2;
+            if ((low == null || low.compareTo(value) < 0) && (high == null || value.compareTo(high) < 0)) {
+                break;
+            }
+            popFinger();
+        }
+
+        SearchTreeNode<T> cur = fingerPath.get(fingerPath.size() - 1);
+        int depth = 0;
+        while (true) {
+            depth++;
+            int cmp = cur.getValue().compareTo(value);
+            SearchTreeNode<T> next = cmp > 0 ? cur.getLeft() : cmp < 0 ? cur.getRight() : null;
+            if (next == null) {
+                break;
+            }
+            int top = fingerPath.size() - 1;
+            if (cmp > 0) {
+                pushFinger(next, fingerLow.get(top), cur.getValue());
+            } else {
+                pushFinger(next, cur.getValue(), fingerHigh.get(top));
+            }
+            cur = next;
+        }
+        metrics.recordDescent(depth, comparisons + depth);
+        return cur;
+    }
+
+    /**
+     * 从新结点沿finger路径向上，重建最深的、某个孩子结点数超过其ALPHA的祖先
+     */
+    private void rebuildScapegoat() {
+        long childSize = 1;
+        for (int i = fingerPath.size() - 1; i > 0; i--) {
+            SearchTreeNode<T> child = fingerPath.get(i);
+            SearchTreeNode<T> parent = fingerPath.get(i - 1);
+            SearchTreeNode<T> sibling = parent.getLeft() == child ? parent.getRight() : parent.getLeft();
+            long parentSize = childSize + count(sibling) + 1;
+            if (childSize > ALPHA * parentSize) {
+                rebuild(i - 1, parentSize);
+                return;
+            }
+            childSize = parentSize;
+        }
+    }
+
+    /**
+     * 把fingerPath[index]处的子树重建为平衡树，index为-1时重建整棵树。
+     * finger截断到重建后子树的根
+     * @param index
+     * @param subtreeSize 子树的结点数
+     */
+    @SuppressWarnings("unchecked")
+    private void rebuild(int index, long subtreeSize) {
+        SearchTreeNode<T> top = index < 0 ? root.getLeft() : fingerPath.get(index);
+        SearchTreeNode<T>[] nodes = (SearchTreeNode<T>[]) new SearchTreeNode<?>[(int) subtreeSize];
+        int n = 0;
+        ArrayDeque<SearchTreeNode<T>> stack = new ArrayDeque<SearchTreeNode<T>>();
+        for (SearchTreeNode<T> node = top; node != null; node = node.getLeft()) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            SearchTreeNode<T> node = stack.pop();
+            for (SearchTreeNode<T> r = node.getRight(); r != null; r = r.getLeft()) {
+                stack.push(r);
+            }
+            nodes[n++] = node;
+        }
+        SearchTreeNode<T> newTop = linkBalanced(nodes, 0, n - 1);
+
+        SearchTreeNode<T> parent = index <= 0 ? root : fingerPath.get(index - 1);
+        if (parent.getLeft() == top) {
+            parent.setLeft(newTop);
+        } else {
+            parent.setRight(newTop);
+        }
+        if (index < 0) {
+            maxSize = size.get();
+            clearFinger();
+            return;
+        }
+        while (fingerPath.size() > index + 1) {
+            popFinger();
+        }
+        fingerPath.set(index, newTop);
+    }
+
+    //子树的结点数，子树可能是一条长链，所以不用递归
+    private static <T extends Comparable<T>> long count(SearchTreeNode<T> node) {
+        long count = 0;
+        ArrayDeque<SearchTreeNode<T>> stack = new ArrayDeque<SearchTreeNode<T>>();
+        if (node != null) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            SearchTreeNode<T> n = stack.pop();
+            count++;
+            if (n.getLeft() != null) {
+                stack.push(n.getLeft());
+            }
+            if (n.getRight() != null) {
+                stack.push(n.getRight());
+            }
+        }
+        return count;
+    }
+
+    private void pushFinger(SearchTreeNode<T> node, T low, T high) {
+        fingerPath.add(node);
+        fingerLow.add(low);
+        fingerHigh.add(high);
+    }
+
+    private void popFinger() {
+        int top = fingerPath.size() - 1;
+        fingerPath.remove(top);
+        fingerLow.remove(top);
+        fingerHigh.remove(top);
+    }
+
+    private void clearFinger() {
+        if (fingerSearch) {
+            fingerPath.clear();
+            fingerLow.clear();
+            fingerHigh.clear();
+        }
+    }
+
     /**
      * 删除结点
      * @param value
      * @return
      */
     public boolean removeNode(T value) {
-        //查找所需删除的结点
-        SearchTreeNode<T> node = findRemoveNode(value);
-
-        //没有找到, 删除失败
+        SearchTreeNode<T> node;
+        if (fingerSearch) {
+            node = fingerRemove(value);
+        } else {
+            //查找所需删除的结点
+            node = findRemoveNode(value);
+            //没有找到, 删除失败
+            if (node == null) {
+                return false;
+            }
+            removeNode(node);
+        }
         if (node == null) {
             return false;
         }
-        return removeNode(node);
+        recycle(node);
+        return true;
     }
 
     /**
@@ -173,6 +599,9 @@ public class SearchTree<T extends Comparable<T>> {
      * @return
      */
     public boolean removeNode(SearchTreeNode<T> node) {
+        if (fingerSearch) {
+            return fingerRemove(node.getValue()) != null;
+        }
         //查找所需删除结点的父结点
         SearchTreeNode<T> parent = findRemoveParentNode(node);
 
@@ -227,6 +656,55 @@ public class SearchTree<T extends Comparable<T>> {
         return true;
     }
 
+    /**
+     * finger模式删除。有两个孩子的结点由后继结点顶替，树不会变深（不同于把左子树挂到右子树下面），
+     * 深度上界保持不变；删除的结点达到1 - ALPHA时重建整棵树
+     * @return 摘下的结点，值不存在返回null
+     */
+    private SearchTreeNode<T> fingerRemove(T value) {
+        if (root.getLeft() == null) {
+            return null;
+        }
+        SearchTreeNode<T> node = fingerDescend(value);
+        if (node.getValue().compareTo(value) != 0) {
+            return null;
+        }
+        int top = fingerPath.size() - 1;
+        SearchTreeNode<T> parent = top == 0 ? root : fingerPath.get(top - 1);
+        SearchTreeNode<T> replacement;
+        if (node.getLeft() == null) {
+            replacement = node.getRight();
+        } else if (node.getRight() == null) {
+            replacement = node.getLeft();
+        } else {
+            SearchTreeNode<T> successorParent = node;
+            SearchTreeNode<T> successor = node.getRight();
+            while (successor.getLeft() != null) {
+                successorParent = successor;
+                successor = successor.getLeft();
+            }
+            if (successorParent != node) {
+                successorParent.setLeft(successor.getRight());
+                successor.setRight(node.getRight());
+            }
+            successor.setLeft(node.getLeft());
+            replacement = successor;
+        }
+        if (parent.getLeft() == node) {
+            parent.setLeft(replacement);
+        } else {
+            parent.setRight(replacement);
+        }
+        node.setLeft(null);
+        node.setRight(null);
+        //node以上的路径不变
+        popFinger();
+        if (size.decrementAndGet() < ALPHA * maxSize) {
+            rebuild(-1, size.get());
+        }
+        return node;
+    }
+
 
     /**
      * 将左孩子挂到右孩子最左孩子的左边
@@ -248,7 +726,9 @@ public class SearchTree<T extends Comparable<T>> {
     private SearchTreeNode<T> findRemoveParentNode(SearchTreeNode<T> node) {
         SearchTreeNode<T> parent = getRoot();
         SearchTreeNode<T> cur = parent;
+        int depth = 0;
         while (cur != null) {
+            depth++;
             int cmp = cur.getValue().compareTo(node.getValue());
             if (cmp > 0) {
                 parent = cur;
@@ -257,10 +737,11 @@ public class SearchTree<T extends Comparable<T>> {
                 parent = cur;
                 cur = cur.getRight();
             } else {
-                return parent;
+                break;
             }
         }
-        return null;
+        metrics.recordDescent(depth, depth);
+        return cur == null ? null : parent;
     }
 
     /**
@@ -270,17 +751,58 @@ public class SearchTree<T extends Comparable<T>> {
      */
     private SearchTreeNode<T> findRemoveNode(T node) {
         SearchTreeNode<T> cur = getRoot();
+        int depth = 0;
         while (cur != null) {
+            depth++;
             int cmp = cur.getValue().compareTo(node);
             if (cmp > 0) {
                 cur = cur.getLeft();
             } else if (cmp < 0) {
                 cur = cur.getRight();
             } else {
-                return cur;
+                break;
             }
         }
-        return null;
+        metrics.recordDescent(depth, depth);
+        return cur;
+    }
+
+    /**
+     * 把当前的值编译为只读的 {@link FrozenTree}，之后的修改不可见
+     * @return
+     */
+    public FrozenTree<T> freeze() {
+        return FrozenTree.fromSorted(iterator(), getSize());
+    }
+
+    /**
+     * 升序迭代器，用显式栈做中序遍历，树可能退化，太深不能递归
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator() {
+        final ArrayDeque<SearchTreeNode<T>> stack = new ArrayDeque<SearchTreeNode<T>>();
+        for (SearchTreeNode<T> n = getRoot(); n != null; n = n.getLeft()) {
+            stack.push(n);
+        }
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                SearchTreeNode<T> node = stack.pop();
+                for (SearchTreeNode<T> n = node.getRight(); n != null; n = n.getLeft()) {
+                    stack.push(n);
+                }
+                return node.getValue();
+            }
+        };
     }
 
     /**
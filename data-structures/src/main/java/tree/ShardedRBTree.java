@@ -0,0 +1,322 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ordered container split by key range into RBTree shards, each behind its own {@link StampedLock},
+ * so writers to different ranges never wait for each other.
+ * shard i holds the values in [bound i-1, bound i), the first shard is open below, the last one above.
+ * finds descend optimistically like {@link ConcurrentRBTree#find(Comparable)}.
+ * <p>
+ * the shard table is immutable and replaced as a whole when a shard is split:
+ * the old shard is retired under its write lock, and an operation that routed to it before the
+ * new table was published sees the retired flag once it gets the lock and routes again.
+ * with maxShardSize set, a writer that grows a shard past it splits that shard at its median.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class ShardedRBTree<T extends Comparable<T>> implements Iterable<T> {
+    private final boolean overrideMode;
+    private final long maxShardSize;
+    private final AtomicReference<Table<T>> table = new AtomicReference<Table<T>>();
+
+    /**
+     * a single shard, split only by {@link #splitShard(int)}, equal values are not replaced like {@link RBTree#RBTree()}
+     */
+    public ShardedRBTree(){
+        this(new ArrayList<T>(), 0, false);
+    }
+
+    /**
+     * @param bounds the lower bound of every shard after the first, strictly ascending
+     * @param maxShardSize split a shard at its median once it holds more values, 0 never splits
+     * @param overrideMode see {@link RBTree#RBTree(boolean)}
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedRBTree(List<T> bounds, long maxShardSize, boolean overrideMode){
+        if (maxShardSize < 0){
+            throw new IllegalArgumentException("maxShardSize is negative: " + maxShardSize);
+        }
+        for (int i = 1; i < bounds.size(); i++){
+            if (bounds.get(i - 1).compareTo(bounds.get(i)) >= 0){
+                throw new IllegalArgumentException("bounds are not in strictly ascending order: " + bounds.get(i - 1) + ", " + bounds.get(i));
+            }
+        }
+        this.overrideMode = overrideMode;
+        this.maxShardSize = maxShardSize;
+        Shard<T>[] shards = (Shard<T>[]) new Shard<?>[bounds.size() + 1];
+        for (int i = 0; i < shards.length; i++){
+            shards[i] = new Shard<T>(new RBTree<T>(overrideMode));
+        }
+        table.set(new Table<T>((T[]) bounds.toArray(new Comparable<?>[0]), shards));
+    }
+
+    /**
+     * @see RBTree#addNode(Comparable)
+     * @param value
+     * @return
+     */
+    public T addNode(T value){
+        while (true){
+            Shard<T> shard = table.get().route(value);
+            long stamp = shard.lock.writeLock();
+            T old;
+            long shardSize;
+            try {
+                if (shard.retired){
+                    continue;
+                }
+                old = shard.tree.addNode(value);
+                shardSize = shard.tree.getSize();
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+            if (maxShardSize > 0 && shardSize > maxShardSize){
+                split(shard, true);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * @see RBTree#removeNode(Comparable)
+     * @param value
+     * @return
+     */
+    public T removeNode(T value){
+        while (true){
+            Shard<T> shard = table.get().route(value);
+            long stamp = shard.lock.writeLock();
+            try {
+                if (!shard.retired){
+                    return shard.tree.removeNode(value);
+                }
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * @see RBTree#find(Comparable)
+     * @param value
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T find(T value){
+        while (true){
+            Shard<T> shard = table.get().route(value);
+            for (int i = 0; i < ConcurrentRBTree.OPTIMISTIC_RETRIES; i++){
+                long stamp = shard.lock.tryOptimisticRead();
+                if (stamp == 0L){
+                    //a writer holds the lock right now
+                    continue;
+                }
+                boolean retired = shard.retired;
+                Object found;
+                try {
+                    found = ConcurrentRBTree.optimisticFind(shard.tree, value);
+                } catch (RuntimeException e) {
+                    //links were read in the middle of a rotation
+                    if (shard.lock.validate(stamp)){
+                        throw e;
+                    }
+                    continue;
+                }
+                if (shard.lock.validate(stamp) && found != ConcurrentRBTree.RETRY){
+                    if (retired){
+                        break;
+                    }
+                    return (T) found;
+                }
+            }
+
+            long stamp = shard.lock.readLock();
+            try {
+                if (!shard.retired){
+                    return shard.tree.find(value);
+                }
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * sum of the shard sizes, not a snapshot while writers run
+     * @return
+     */
+    public long getSize(){
+        long size = 0;
+        for (Shard<T> shard : table.get().shards){
+            size += shard.tree.getSize();
+        }
+        return size;
+    }
+
+    public int getShardCount(){
+        return table.get().shards.length;
+    }
+
+    public long getShardSize(int index){
+        return table.get().shards[index].tree.getSize();
+    }
+
+    /**
+     * lower bounds of the shards after the first
+     * @return
+     */
+    public List<T> getBounds(){
+        return Arrays.asList(table.get().bounds.clone());
+    }
+
+    /**
+     * split shard index at its median, writers of that shard wait while its values are copied
+     * @param index
+     * @return false if the shard holds fewer than two values
+     */
+    public boolean splitShard(int index){
+        return split(table.get().shards[index], false);
+    }
+
+    /**
+     * replace shard by two shards holding the values below and from its median, then publish the new table.
+     * splits are serialized, the rest of the table keeps working meanwhile
+     * @param shard
+     * @param automatic only split if the shard is still above maxShardSize
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized boolean split(Shard<T> shard, boolean automatic){
+        Table<T> current = table.get();
+        int index = Arrays.asList(current.shards).indexOf(shard);
+        if (index < 0){
+            //already split by another writer
+            return false;
+        }
+        long stamp = shard.lock.writeLock();
+        try {
+            long size = shard.tree.getSize();
+            if (size < 2 || (automatic && size <= maxShardSize)){
+                return false;
+            }
+            Iterator<T> values = shard.tree.iterator();
+            long lowerSize = size / 2;
+            RBTree<T> lower = new RBTree<T>(overrideMode);
+            lower.bulkLoad(values, lowerSize);
+            RBTree<T> upper = new RBTree<T>(overrideMode);
+            upper.bulkLoad(values, size - lowerSize);
+            T median = upper.firstNode().getValue();
+
+            T[] bounds = (T[]) new Comparable<?>[current.bounds.length + 1];
+            System.arraycopy(current.bounds, 0, bounds, 0, index);
+            bounds[index] = median;
+            System.arraycopy(current.bounds, index, bounds, index + 1, current.bounds.length - index);
+            Shard<T>[] shards = (Shard<T>[]) new Shard<?>[current.shards.length + 1];
+            System.arraycopy(current.shards, 0, shards, 0, index);
+            shards[index] = new Shard<T>(lower);
+            shards[index + 1] = new Shard<T>(upper);
+            System.arraycopy(current.shards, index + 1, shards, index + 2, current.shards.length - index - 1);
+            table.set(new Table<T>(bounds, shards));
+            shard.retired = true;
+            return true;
+        } finally {
+            shard.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * ascending iterator over all shards, weakly consistent:
+     * every shard is copied under its read lock when the iteration reaches it,
+     * so each range is seen as of one moment but different ranges at different moments
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator(){
+        final Shard<T>[] shards = table.get().shards;
+        return new Iterator<T>() {
+            private int next;
+            private Iterator<T> current = new ArrayList<T>().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && next < shards.length){
+                    current = shards[next++].copy().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * one key range
+     */
+    private static final class Shard<T extends Comparable<T>> {
+        final RBTree<T> tree;
+        final StampedLock lock = new StampedLock();
+        //set under the write lock once the shard is replaced, it is never written again
+        volatile boolean retired;
+
+        Shard(RBTree<T> tree){
+            this.tree = tree;
+        }
+
+        List<T> copy(){
+            long stamp = lock.readLock();
+            try {
+                List<T> values = new ArrayList<T>((int) tree.getSize());
+                for (T value : tree){
+                    values.add(value);
+                }
+                return values;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * immutable routing table, shards.length == bounds.length + 1
+     */
+    private static final class Table<T extends Comparable<T>> {
+        final T[] bounds;
+        final Shard<T>[] shards;
+
+        Table(T[] bounds, Shard<T>[] shards){
+            this.bounds = bounds;
+            this.shards = shards;
+        }
+
+        /**
+         * the shard whose range holds value: binary search for the number of bounds not above it
+         */
+        Shard<T> route(T value){
+            int lo = 0;
+            int hi = bounds.length;
+            while (lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if (bounds[mid].compareTo(value) <= 0){
+                    lo = mid + 1;
+                }else{
+                    hi = mid;
+                }
+            }
+            return shards[lo];
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+class SplayTreeNode<T extends Comparable<T>> {
+    private T value;
+    private SplayTreeNode<T> left;
+    private SplayTreeNode<T> right;
+
+    SplayTreeNode() {
+    }
+
+    SplayTreeNode(T value) {
+        this.value = value;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public SplayTreeNode<T> getLeft() {
+        return left;
+    }
+
+    public void setLeft(SplayTreeNode<T> left) {
+        this.left = left;
+    }
+
+    public SplayTreeNode<T> getRight() {
+        return right;
+    }
+
+    public void setRight(SplayTreeNode<T> right) {
+        this.right = right;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
+
+/**
+ * top-down splay tree (Sleator and Tarjan) with the {@link SearchTree} API.
+ * every find, add and remove moves the touched value to the root, rotating the search path
+ * half way up on the way down, so frequently used values stay near the root and a skewed
+ * workload walks far shorter paths than in a balanced tree. any sequence of m operations is
+ * O(m log n), a single one can be O(n).
+ * <p>
+ * find changes the tree, so even lookups need exclusive access.
+ */
+public class SplayTree<T extends Comparable<T>> implements Iterable<T> {
+    private SplayTreeNode<T> root;
+    private AtomicLong size = new AtomicLong(0);
+    //hot path counters, off unless setMetrics is called
+    private TreeMetrics metrics = TreeMetrics.NOOP;
+    //left and right trees collected during a splay hang off this header
+    private final SplayTreeNode<T> header = new SplayTreeNode<T>();
+
+    public SplayTreeNode<T> getRoot() {
+        return root;
+    }
+
+    public long getSize() {
+        return size.get();
+    }
+
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * report the depth of every splay and the rotations it made
+     * @param metrics null switches counting off
+     */
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics == null ? TreeMetrics.NOOP : metrics;
+    }
+
+    /**
+     * add a value, the added or the equal value becomes the root
+     * @param value
+     * @return the value already in the tree if there is an equal one, otherwise value
+     */
+    public T addNode(T value) {
+        if (root == null) {
+            root = new SplayTreeNode<T>(value);
+            size.incrementAndGet();
+            return value;
+        }
+        splay(value);
+        int cmp = value.compareTo(root.getValue());
+        if (cmp == 0) {
+            return root.getValue();
+        }
+        SplayTreeNode<T> node = new SplayTreeNode<T>(value);
+        //the old root and one of its subtrees go below the new node
+        if (cmp < 0) {
+            node.setLeft(root.getLeft());
+            node.setRight(root);
+            root.setLeft(null);
+        } else {
+            node.setRight(root.getRight());
+            node.setLeft(root);
+            root.setRight(null);
+        }
+        root = node;
+        size.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * find a value, the found value becomes the root
+     * @param value
+     * @return the equal value in the tree, null if absent
+     */
+    public T find(T value) {
+        if (root == null) {
+            return null;
+        }
+        splay(value);
+        return root.getValue().compareTo(value) == 0 ? root.getValue() : null;
+    }
+
+    /**
+     * remove a value
+     * @param value
+     * @return true if the value was removed, false if it was absent
+     */
+    public boolean removeNode(T value) {
+        if (root == null) {
+            return false;
+        }
+        splay(value);
+        if (root.getValue().compareTo(value) != 0) {
+            return false;
+        }
+        SplayTreeNode<T> right = root.getRight();
+        if (root.getLeft() == null) {
+            root = right;
+        } else {
+            //every value on the left is smaller, splaying it brings its maximum up with no right child
+            root = root.getLeft();
+            splay(value);
+            root.setRight(right);
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * top-down splay: walk down from the root, cutting the path into a left tree of smaller values
+     * and a right tree of larger ones (with a rotation on every zig-zig step),
+     * then reassemble them under the last node reached, which becomes the root
+     */
+    private void splay(T value) {
+        SplayTreeNode<T> l = header;
+        SplayTreeNode<T> r = header;
+        SplayTreeNode<T> t = root;
+        header.setLeft(null);
+        header.setRight(null);
+        int depth = 0;
+        int rotations = 0;
+        while (true) {
+            depth++;
+            int cmp = value.compareTo(t.getValue());
+            if (cmp < 0) {
+                if (t.getLeft() == null) {
+                    break;
+                }
+                if (value.compareTo(t.getLeft().getValue()) < 0) {
+                    //zig-zig: rotate right
+                    SplayTreeNode<T> y = t.getLeft();
+                    t.setLeft(y.getRight());
+                    y.setRight(t);
+                    t = y;
+                    rotations++;
+                    depth++;
+                    if (t.getLeft() == null) {
+                        break;
+                    }
+                }
+                //link right
+                r.setLeft(t);
+                r = t;
+                t = t.getLeft();
+            } else if (cmp > 0) {
+                if (t.getRight() == null) {
+                    break;
+                }
+                if (value.compareTo(t.getRight().getValue()) > 0) {
+                    //zig-zig: rotate left
+                    SplayTreeNode<T> y = t.getRight();
+                    t.setRight(y.getLeft());
+                    y.setLeft(t);
+                    t = y;
+                    rotations++;
+                    depth++;
+                    if (t.getRight() == null) {
+                        break;
+                    }
+                }
+                //link left
+                l.setRight(t);
+                l = t;
+                t = t.getRight();
+            } else {
+                break;
+            }
+        }
+        //assemble
+        l.setRight(t.getLeft());
+        r.setLeft(t.getRight());
+        t.setLeft(header.getRight());
+        t.setRight(header.getLeft());
+        root = t;
+        header.setLeft(null);
+        header.setRight(null);
+        metrics.recordDescent(depth, depth);
+        metrics.recordRotations(rotations);
+    }
+
+    /**
+     * ascending iterator, does not splay
+     * @return
+     */
+    @Override
+    public Iterator<T> iterator() {
+        final ArrayDeque<SplayTreeNode<T>> stack = new ArrayDeque<SplayTreeNode<T>>();
+        for (SplayTreeNode<T> n = root; n != null; n = n.getLeft()) {
+            stack.push(n);
+        }
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                SplayTreeNode<T> node = stack.pop();
+                for (SplayTreeNode<T> n = node.getRight(); n != null; n = n.getLeft()) {
+                    stack.push(n);
+                }
+                return node.getValue();
+            }
+        };
+    }
+
+    /**
+     * debug method,it used print the given node and its children nodes,
+     * every layer output in one line
+     *
+     * @param root
+     */
+    public void printTree(SplayTreeNode<T> root) {
+        LinkedList<SplayTreeNode<T>> queue = new LinkedList<SplayTreeNode<T>>();
+        if (root == null) {
+            return;
+        }
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            LinkedList<SplayTreeNode<T>> queue2 = new LinkedList<SplayTreeNode<T>>();
+            while (!queue.isEmpty()) {
+                SplayTreeNode<T> n = queue.poll();
+                System.out.print(n.getValue().toString() + "\t");
+                if (n.getLeft() != null) {
+                    queue2.add(n.getLeft());
+                }
+                if (n.getRight() != null) {
+                    queue2.add(n.getRight());
+                }
+            }
+            queue = queue2;
+            System.out.println();
+        }
+    }
+}
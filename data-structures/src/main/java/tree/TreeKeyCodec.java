@@ -0,0 +1,70 @@
+package tree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * fixed width binary form of a tree key, used by {@link TreeSnapshot} and {@link MappedTreeSnapshot}.
+ * every key takes exactly {@link #width()} bytes, so the i-th key of a snapshot is at a computable offset
+ * and the mapped file can be binary searched in place.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public interface TreeKeyCodec<T> {
+
+    TreeKeyCodec<Long> LONG = new TreeKeyCodec<Long>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, Long key) {
+            buffer.putLong(key);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    TreeKeyCodec<Integer> INTEGER = new TreeKeyCodec<Integer>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, Integer key) {
+            buffer.putInt(key);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    /**
+     * bytes per key
+     * @return
+     */
+    int width();
+
+    /**
+     * relative put of exactly {@link #width()} bytes
+     * @param buffer
+     * @param key
+     */
+    void write(ByteBuffer buffer, T key);
+
+    /**
+     * absolute get, must not move the buffer position
+     * @param buffer
+     * @param offset
+     * @return
+     */
+    T read(ByteBuffer buffer, int offset);
+}
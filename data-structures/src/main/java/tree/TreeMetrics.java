@@ -0,0 +1,55 @@
+package tree;
+
+/**
+ * hot path callbacks of the trees, off by default ({@link #NOOP}).
+ * the trees count locally while they work and report once per operation,
+ * so with NOOP installed the call is a single monomorphic no-op the JIT inlines away.
+ * {@link TreeStats} is the implementation that aggregates and exposes them through JMX.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public interface TreeMetrics {
+    /** left child's left subtree too high, one right rotation */
+    int REBALANCE_LL = 0;
+    /** left child's right subtree too high, left then right rotation */
+    int REBALANCE_LR = 1;
+    /** right child's right subtree too high, one left rotation */
+    int REBALANCE_RR = 2;
+    /** right child's left subtree too high, right then left rotation */
+    int REBALANCE_RL = 3;
+
+    TreeMetrics NOOP = new TreeMetrics() {
+        @Override
+        public void recordDescent(int depth, int comparisons) {
+        }
+
+        @Override
+        public void recordRotations(int rotations) {
+        }
+
+        @Override
+        public void recordRebalance(int rebalanceCase) {
+        }
+    };
+
+    /**
+     * one root to node walk of find, insert or remove
+     * @param depth number of nodes visited
+     * @param comparisons number of compareTo calls
+     */
+    void recordDescent(int depth, int comparisons);
+
+    /**
+     * one red black fixup after an insert or a remove
+     * @param rotations rotations it took, 0 for a recolor only fixup
+     */
+    void recordRotations(int rotations);
+
+    /**
+     * one AVL rebalance
+     * @param rebalanceCase one of REBALANCE_LL, REBALANCE_LR, REBALANCE_RR, REBALANCE_RL
+     */
+    void recordRebalance(int rebalanceCase);
+}
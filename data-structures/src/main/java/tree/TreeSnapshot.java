@@ -0,0 +1,107 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * writes a tree as a binary snapshot, read back by {@link MappedTreeSnapshot}.
+ * <pre>
+ * | magic int | version int | key width int | count long | count keys in ascending order |
+ * </pre>
+ * the keys are the tree flattened in order, every key {@link TreeKeyCodec#width()} bytes, big endian.
+ * a sorted array is all a lookup needs (binary search) and loads back into an RBTree in O(n)
+ * through {@link RBTree#fromSorted(Iterator, long)}.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public final class TreeSnapshot {
+    static final int MAGIC = 0x52425453;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+    //keys are staged in a buffer of this size between channel writes
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private TreeSnapshot() {
+    }
+
+    public static <T extends Comparable<T>> void write(RBTree<T> tree, Path path, TreeKeyCodec<T> codec) throws IOException {
+        write(tree.iterator(), tree.getSize(), path, codec);
+    }
+
+    public static <T extends Comparable<T>> void write(SearchTree<T> tree, Path path, TreeKeyCodec<T> codec) throws IOException {
+        write(tree.iterator(), tree.getSize(), path, codec);
+    }
+
+    /**
+     * write size keys taken from sorted, replacing the file at path.
+     * the keys go to a temporary file next to path, which is moved over path once it is complete and forced,
+     * so a failed write leaves the previous snapshot intact and readers that mapped it keep their pages
+     * @param sorted keys in strictly ascending order
+     * @param size number of keys
+     * @param path
+     * @param codec
+     * @throws IOException
+     */
+    public static <T extends Comparable<T>> void write(Iterator<T> sorted, long size, Path path, TreeKeyCodec<T> codec) throws IOException {
+        int width = codec.width();
+        if (width <= 0 || width > WRITE_BUFFER_BYTES) {
+            throw new IllegalArgumentException("key width: " + width);
+        }
+        Path target = path.toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        boolean moved = false;
+        try {
+            writeKeys(sorted, size, tmp, codec, width);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private static <T extends Comparable<T>> void writeKeys(Iterator<T> sorted, long size, Path path, TreeKeyCodec<T> codec, int width) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(width).putLong(size);
+            T last = null;
+            for (long i = 0; i < size; i++) {
+                if (!sorted.hasNext()) {
+                    throw new IllegalArgumentException("expected " + size + " keys, got " + i);
+                }
+                T key = sorted.next();
+                if (last != null && last.compareTo(key) >= 0) {
+                    throw new IllegalArgumentException("keys are not strictly ascending at " + key);
+                }
+                last = key;
+                if (buffer.remaining() < width) {
+                    flush(channel, buffer);
+                }
+                int start = buffer.position();
+                codec.write(buffer, key);
+                if (buffer.position() - start != width) {
+                    throw new IllegalStateException("codec wrote " + (buffer.position() - start) + " bytes, width is " + width);
+                }
+            }
+            flush(channel, buffer);
+            channel.force(false);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,143 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * subtree splitting spliterator shared by the linked trees.
+ * it covers one node (head) followed by the in-order values of one subtree;
+ * trySplit hands (head, subtree.left) to the caller as the prefix and keeps (subtree, subtree.right),
+ * so the first splits happen at the root and its children and every half is a real subtree.
+ * <p>
+ * the size is exact until the first split, after that every half estimates half of its parent,
+ * like {@link java.util.TreeMap}'s spliterators.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+abstract class TreeSpliterator<N, T> implements Spliterator<T> {
+    private N head;
+    private N subtree;
+    private long estimate;
+    private int characteristics;
+    //in-order stack of subtree, created on the first traversal, no more splits after that
+    private ArrayDeque<N> stack;
+
+    TreeSpliterator(N head, N subtree, long estimate, int characteristics) {
+        this.head = head;
+        this.subtree = subtree;
+        this.estimate = estimate;
+        this.characteristics = characteristics;
+    }
+
+    abstract N left(N node);
+
+    abstract N right(N node);
+
+    abstract T value(N node);
+
+    /**
+     * spliterator over (head, subtree), same kind as this one
+     */
+    abstract TreeSpliterator<N, T> split(N head, N subtree, long estimate, int characteristics);
+
+    /**
+     * called after every traversal step, throws ConcurrentModificationException if the tree changed
+     */
+    void checkForComodification() {
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (stack != null || subtree == null) {
+            return null;
+        }
+        if (head == null && left(subtree) == null) {
+            //nothing on the left: the subtree root becomes the head and its right side the subtree
+            head = subtree;
+            subtree = right(subtree);
+            if (subtree == null) {
+                return null;
+            }
+        }
+        N s = subtree;
+        long half = estimate >>> 1;
+        characteristics &= ~Spliterator.SIZED;
+        TreeSpliterator<N, T> prefix = split(head, left(s), half, characteristics);
+        head = s;
+        subtree = right(s);
+        estimate -= half;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        N node = nextNode();
+        if (node == null) {
+            return false;
+        }
+        action.accept(value(node));
+        checkForComodification();
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        for (N node = nextNode(); node != null; node = nextNode()) {
+            action.accept(value(node));
+        }
+        checkForComodification();
+    }
+
+    private N nextNode() {
+        if (stack == null) {
+            stack = new ArrayDeque<N>();
+            pushLeft(subtree);
+            subtree = null;
+        }
+        if (head != null) {
+            N node = head;
+            head = null;
+            return node;
+        }
+        if (stack.isEmpty()) {
+            return null;
+        }
+        N node = stack.pop();
+        pushLeft(right(node));
+        return node;
+    }
+
+    private void pushLeft(N node) {
+        for (N n = node; n != null; n = left(n)) {
+            stack.push(n);
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+    /**
+     * natural ordering
+     */
+    @Override
+    public Comparator<? super T> getComparator() {
+        return null;
+    }
+}
@@ -0,0 +1,176 @@
+package tree;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counting {@link TreeMetrics}, striped adders so several trees or threads can share one instance.
+ * a depth far above 2*log2(size) in {@link #getDepthHistogram()} means the tree is degenerating.
+ * <pre>
+ *     TreeStats stats = new TreeStats();
+ *     tree.setMetrics(stats);
+ *     stats.register("orders");   //tree:type=TreeStats,name=orders
+ * </pre>
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class TreeStats implements TreeMetrics, TreeStatsMBean {
+    //depth 0..62 get a bucket each, the last one takes every deeper descent
+    static final int HISTOGRAM_BUCKETS = 64;
+
+    private final LongAdder descents = new LongAdder();
+    private final LongAdder depths = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] depthHistogram = newAdders(HISTOGRAM_BUCKETS);
+    private final LongAdder fixups = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder[] rebalances = newAdders(4);
+    private ObjectName objectName;
+
+    @Override
+    public void recordDescent(int depth, int comparisons) {
+        descents.increment();
+        depths.add(depth);
+        this.comparisons.add(comparisons);
+        maxDepth.accumulate(depth);
+        depthHistogram[Math.min(depth, HISTOGRAM_BUCKETS - 1)].increment();
+    }
+
+    @Override
+    public void recordRotations(int rotations) {
+        fixups.increment();
+        this.rotations.add(rotations);
+    }
+
+    @Override
+    public void recordRebalance(int rebalanceCase) {
+        rebalances[rebalanceCase].increment();
+    }
+
+    @Override
+    public long getDescents() {
+        return descents.sum();
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    @Override
+    public double getAverageComparisons() {
+        return average(comparisons.sum(), descents.sum());
+    }
+
+    @Override
+    public double getAverageDepth() {
+        return average(depths.sum(), descents.sum());
+    }
+
+    @Override
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public long[] getDepthHistogram() {
+        return sums(depthHistogram);
+    }
+
+    @Override
+    public long getFixups() {
+        return fixups.sum();
+    }
+
+    @Override
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    @Override
+    public double getAverageRotations() {
+        return average(rotations.sum(), fixups.sum());
+    }
+
+    @Override
+    public long[] getRebalances() {
+        return sums(rebalances);
+    }
+
+    /**
+     * zero every counter, not atomic with respect to concurrent records
+     */
+    @Override
+    public void reset() {
+        descents.reset();
+        depths.reset();
+        comparisons.reset();
+        maxDepth.reset();
+        fixups.reset();
+        rotations.reset();
+        for (LongAdder adder : depthHistogram) {
+            adder.reset();
+        }
+        for (LongAdder adder : rebalances) {
+            adder.reset();
+        }
+    }
+
+    /**
+     * register with the platform MBean server as tree:type=TreeStats,name=&lt;name&gt;
+     * @param name
+     * @return
+     * @throws JMException if the name is taken or invalid
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        if (objectName != null) {
+            throw new IllegalStateException("already registered as " + objectName);
+        }
+        ObjectName on = new ObjectName("tree:type=TreeStats,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+        objectName = on;
+        return on;
+    }
+
+    /**
+     * undo {@link #register(String)}, nothing happens when not registered
+     * @throws JMException
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        objectName = null;
+    }
+
+    private static LongAdder[] newAdders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    private static double average(long total, long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+}
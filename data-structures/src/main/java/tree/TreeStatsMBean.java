@@ -0,0 +1,38 @@
+package tree;
+
+/**
+ * JMX view of a {@link TreeStats}
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public interface TreeStatsMBean {
+    long getDescents();
+
+    long getComparisons();
+
+    double getAverageComparisons();
+
+    double getAverageDepth();
+
+    long getMaxDepth();
+
+    /**
+     * element i counts descents of depth i, the last element all deeper ones
+     */
+    long[] getDepthHistogram();
+
+    long getFixups();
+
+    long getRotations();
+
+    double getAverageRotations();
+
+    /**
+     * counts of the LL, LR, RR, RL rebalances, indexed by the TreeMetrics.REBALANCE_* constants
+     */
+    long[] getRebalances();
+
+    void reset();
+}
@@ -0,0 +1,70 @@
+package tree;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * publishes successive versions of a {@link PersistentRBTree}.
+ * writers build the next version off the current one and swing the reference with CAS,
+ * readers call {@link #snapshot()}, a single volatile read, and get an immutable tree
+ * that no later write can change.
+ *
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class VersionedRBTree<T extends Comparable<T>> {
+    private final AtomicReference<PersistentRBTree<T>> current =
+            new AtomicReference<PersistentRBTree<T>>(PersistentRBTree.<T>empty());
+
+    /**
+     * the current version, never changes after it is returned
+     * @return
+     */
+    public PersistentRBTree<T> snapshot() {
+        return current.get();
+    }
+
+    public long getSize() {
+        return snapshot().getSize();
+    }
+
+    /**
+     * find in the current version
+     * @param value
+     * @return
+     */
+    public T find(T value) {
+        return snapshot().find(value);
+    }
+
+    /**
+     * publish a version with value added
+     * @param value
+     * @return the replaced equal value, null if value is new
+     */
+    public T addNode(T value) {
+        PersistentRBTree.Change<T> change = new PersistentRBTree.Change<T>();
+        while (true) {
+            PersistentRBTree<T> version = current.get();
+            if (current.compareAndSet(version, version.addNode(value, change))) {
+                return change.old;
+            }
+        }
+    }
+
+    /**
+     * publish a version without value
+     * @param value
+     * @return the removed value, null if absent
+     */
+    public T removeNode(T value) {
+        PersistentRBTree.Change<T> change = new PersistentRBTree.Change<T>();
+        while (true) {
+            PersistentRBTree<T> version = current.get();
+            PersistentRBTree<T> next = version.removeNode(value, change);
+            if (change.old == null || current.compareAndSet(version, next)) {
+                return change.old;
+            }
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package tree;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
 /**
  * @author changzer
  * @date 2022/11/10
@@ -32,4 +41,77 @@ public class AVLTreeTest {
         bTree.inOrder();
     }
 
+
+    @Test
+    public void testAVLBulkLoad() {
+        AVLTree<Integer> aTree = AVLTree.fromSorted(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).iterator(), 10);
+        System.out.print("前序遍历结果：");
+        aTree.preOrder();
+        // 批量构建后继续插入，平衡因子必须正确
+        for (int i = 11; i <= 16; i++) {
+            aTree.insert(i);
+        }
+        System.out.print("中序遍历结果：");
+        aTree.inOrder();
+    }
+
+    @Test
+    public void testAVLFindAndRemove() {
+        AVLTree<Integer> aTree = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(19);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.add(key), aTree.insert(key));
+            } else {
+                Assertions.assertEquals(expected.remove(key), aTree.remove(key));
+            }
+        }
+        Assertions.assertEquals(expected.size(), aTree.getSize());
+        for (int key = 0; key < 1000; key++) {
+            Assertions.assertEquals(expected.contains(key) ? Integer.valueOf(key) : null, aTree.find(key));
+        }
+
+        AVLTree<Integer> bTree = new AVLTree<>();
+        for (int i : new int[]{3, 2, 1, 4, 5, 6, 7, 10, 9, 8}) {
+            bTree.insert(i);
+        }
+        bTree.remove(4);
+        System.out.print("删除4后前序遍历结果：");
+        bTree.preOrder();
+    }
+
+    @Test
+    public void testAVLStream() {
+        AVLTree<Integer> aTree = new AVLTree<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            aTree.insert(i);
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, aTree.parallelStream().collect(Collectors.toList()));
+        Assertions.assertEquals(99999L * 100000 / 2, aTree.parallelStream().mapToLong(Integer::longValue).sum());
+        List<Integer> iterated = new ArrayList<>();
+        for (Integer i : aTree) {
+            iterated.add(i);
+        }
+        Assertions.assertEquals(expected, iterated);
+
+        //splits keep ascending order: every prefix ends below where the rest starts
+        Spliterator<Integer> rest = aTree.spliterator();
+        Assertions.assertEquals(100000, rest.getExactSizeIfKnown());
+        int previous = -1;
+        for (Spliterator<Integer> prefix = rest.trySplit(); prefix != null; prefix = rest.trySplit()) {
+            int[] range = {Integer.MAX_VALUE, -1};
+            prefix.forEachRemaining(v -> {
+                range[0] = Math.min(range[0], v);
+                range[1] = Math.max(range[1], v);
+            });
+            Assertions.assertEquals(previous + 1, range[0]);
+            previous = range[1];
+        }
+        Assertions.assertTrue(rest.tryAdvance(v -> Assertions.assertTrue(v > 0)));
+        Assertions.assertEquals(0, new AVLTree<Integer>().stream().count());
+    }
 }
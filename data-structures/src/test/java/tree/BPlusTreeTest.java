@@ -0,0 +1,107 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class BPlusTreeTest {
+    @Test
+    public void testBPlusTree() {
+        for (int order : new int[]{3, 4, 5, 16, 64}) {
+            BPlusTree<Integer> bst = new BPlusTree<Integer>(order);
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            Random random = new Random(order);
+            for (int i = 0; i < 30000; i++) {
+                int value = random.nextInt(3000);
+                if (random.nextInt(5) < 2) {
+                    Assertions.assertEquals(expected.remove(value), bst.removeNode(value) != null);
+                } else {
+                    Assertions.assertEquals(!expected.add(value), bst.addNode(value) != null);
+                }
+                if (i % 3000 == 0) {
+                    checkBPlusTree(bst, order);
+                }
+            }
+            checkBPlusTree(bst, order);
+            Assertions.assertEquals(expected.size(), bst.getSize());
+            Assertions.assertEquals(new ArrayList<Integer>(expected), RBTreeTest.toList(bst));
+            for (int i = 0; i < 3000; i++) {
+                Assertions.assertEquals(expected.contains(i), bst.find(i) != null);
+            }
+            Assertions.assertEquals(new ArrayList<Integer>(expected.subSet(1000, 2000)), RBTreeTest.toList(bst.subSet(1000, 2000)));
+            Assertions.assertEquals(new ArrayList<Integer>(expected.headSet(700)), RBTreeTest.toList(bst.headSet(700)));
+            Assertions.assertEquals(new ArrayList<Integer>(expected.tailSet(2500)), RBTreeTest.toList(bst.tailSet(2500)));
+
+            //remove everything, every third value through the iterator
+            Iterator<Integer> it = bst.iterator();
+            int n = 0;
+            while (it.hasNext()) {
+                Integer value = it.next();
+                if (n++ % 3 == 0) {
+                    it.remove();
+                    expected.remove(value);
+                }
+            }
+            checkBPlusTree(bst, order);
+            Assertions.assertEquals(new ArrayList<Integer>(expected), RBTreeTest.toList(bst));
+            for (Integer value : expected) {
+                bst.removeNode(value);
+            }
+            Assertions.assertEquals(0, bst.getSize());
+            Assertions.assertFalse(bst.iterator().hasNext());
+        }
+        BPlusTree<Integer> bst = new BPlusTree<Integer>(4);
+        for (int i = 0; i < 20; i++) {
+            bst.addNode(i);
+        }
+        bst.printTree();
+    }
+
+
+    //every leaf at the same depth, key counts within bounds, separators bound their children
+    private static void checkBPlusTree(BPlusTree<Integer> bst, int order) {
+        checkNode(bst.getRoot(), null, null, true, order, bst.getMinKeys());
+    }
+
+    private static int checkNode(BPlusTreeNode<Integer> node, Integer lo, Integer hi, boolean isRoot, int order, int minKeys) {
+        Assertions.assertTrue(node.count <= order - 1);
+        if (!isRoot) {
+            Assertions.assertTrue(node.count >= minKeys);
+        }
+        for (int i = 0; i < node.count; i++) {
+            Integer key = node.keyAt(i);
+            if (i > 0) {
+                Assertions.assertTrue(node.keyAt(i - 1) < key);
+            }
+            Assertions.assertTrue(lo == null || key >= lo);
+            Assertions.assertTrue(hi == null || key < hi);
+        }
+        if (node instanceof BPlusTreeLeaf) {
+            return 0;
+        }
+        BPlusTreeInternal<Integer> internal = (BPlusTreeInternal<Integer>) node;
+        if (isRoot) {
+            Assertions.assertTrue(node.count >= 1);
+        }
+        int depth = -1;
+        for (int i = 0; i <= node.count; i++) {
+            Integer childLo = i == 0 ? lo : node.keyAt(i - 1);
+            Integer childHi = i == node.count ? hi : node.keyAt(i);
+            int d = checkNode(internal.childAt(i), childLo, childHi, false, order, minKeys);
+            if (depth >= 0) {
+                Assertions.assertEquals(depth, d);
+            }
+            depth = d;
+        }
+        return depth + 1;
+    }
+}
@@ -0,0 +1,60 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class ConcurrentRBTreeTest {
+    @Test
+    public void testConcurrentRBTreeFind() throws Exception {
+        final ConcurrentRBTree<Integer> bst = new ConcurrentRBTree<Integer>();
+        final int writers = 4;
+        final int perWriter = 20000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers * 2);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int w = 0; w < writers; w++) {
+            final int offset = w;
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perWriter; i++) {
+                        bst.addNode(i * writers + offset);
+                    }
+                }
+            }));
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perWriter; i++) {
+                        Integer found = bst.find(i);
+                        if (found != null) {
+                            Assertions.assertEquals(i, found.intValue());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(writers * perWriter, bst.getSize());
+        for (int i = 0; i < writers * perWriter; i++) {
+            Assertions.assertEquals(i, bst.find(i).intValue());
+        }
+        System.out.println(bst.find(40));
+    }
+}
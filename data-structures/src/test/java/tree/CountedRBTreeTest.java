@@ -0,0 +1,186 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class CountedRBTreeTest {
+    @Test
+    public void testCountedRBTree() {
+        CountedRBTree<String> bag = new CountedRBTree<String>();
+        Assertions.assertEquals(1, bag.add("b"));
+        Assertions.assertEquals(2, bag.add("b"));
+        Assertions.assertEquals(5, bag.add("b", 3));
+        Assertions.assertNull(bag.addNode("a"));
+        Assertions.assertEquals("a", bag.addNode("a"));
+        Assertions.assertEquals(2, bag.addAll(Arrays.asList("c", "a", "d", "c")));
+        System.out.println(bag.count("a") + " " + bag.count("b") + " " + bag.count("c"));
+        Assertions.assertEquals(3, bag.count("a"));
+        Assertions.assertEquals(2, bag.count("c"));
+        Assertions.assertEquals(0, bag.count("x"));
+        Assertions.assertEquals(4, bag.getSize());
+        Assertions.assertEquals(11, bag.getTotalSize());
+
+        Assertions.assertTrue(bag.removeOne("d"));
+        Assertions.assertFalse(bag.removeOne("d"));
+        Assertions.assertTrue(bag.removeOne("b"));
+        Assertions.assertEquals(4, bag.count("b"));
+        //removeNode takes every occurrence
+        Assertions.assertEquals("b", bag.removeNode("b"));
+        Assertions.assertEquals(0, bag.count("b"));
+        Assertions.assertEquals(2, bag.getSize());
+        Assertions.assertEquals(5, bag.getTotalSize());
+
+        //a node carries its count in
+        CountedRBTreeNode<String> node = new CountedRBTreeNode<String>("a");
+        node.setCount(10);
+        Assertions.assertEquals("a", bag.addNode(node));
+        Assertions.assertEquals(13, bag.count("a"));
+
+        Iterator<String> it = bag.iterator();
+        Assertions.assertEquals("a", it.next());
+        it.remove();
+        Assertions.assertEquals(2, bag.getTotalSize());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bag.add("a", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bag.addNode(new RBTreeNode<String>("a")));
+    }
+
+    @Test
+    public void testCountedRBTreeRandom() {
+        CountedRBTree<Integer> bag = new CountedRBTree<Integer>();
+        TreeMap<Integer, Long> expected = new TreeMap<Integer, Long>();
+        long total = 0;
+        Random random = new Random(25);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(500);
+            Long count = expected.get(value);
+            if (random.nextInt(3) > 0) {
+                expected.put(value, count == null ? 1 : count + 1);
+                total++;
+                Assertions.assertEquals(expected.get(value).longValue(), bag.add(value));
+            } else {
+                Assertions.assertEquals(count != null, bag.removeOne(value));
+                if (count != null) {
+                    total--;
+                    if (count == 1) {
+                        expected.remove(value);
+                    } else {
+                        expected.put(value, count - 1);
+                    }
+                }
+            }
+        }
+        Assertions.assertEquals(expected.size(), bag.getSize());
+        Assertions.assertEquals(total, bag.getTotalSize());
+        RBTreeTest.checkRBTree(bag.getRoot());
+        for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue().longValue(), bag.count(entry.getKey()));
+        }
+        List<Integer> values = new ArrayList<Integer>();
+        for (Integer value : bag) {
+            values.add(value);
+        }
+        Assertions.assertEquals(new ArrayList<Integer>(expected.keySet()), values);
+
+        CountedRBTree<Integer> loaded = new CountedRBTree<Integer>();
+        loaded.bulkLoad(expected.keySet().iterator(), expected.size());
+        Assertions.assertEquals(expected.size(), loaded.getTotalSize());
+        Assertions.assertEquals(2, loaded.add(expected.firstKey()));
+    }
+
+    @Test
+    public void testCountedRBTreeSetOperations() {
+        //large enough for the set operations to fork
+        Random random = new Random(25);
+        for (int op = 0; op < 3; op++) {
+            CountedRBTree<Integer> bag = new CountedRBTree<Integer>();
+            CountedRBTree<Integer> other = new CountedRBTree<Integer>();
+            TreeMap<Integer, Long> mine = new TreeMap<Integer, Long>();
+            TreeMap<Integer, Long> theirs = new TreeMap<Integer, Long>();
+            for (int i = 0; i < 50000; i++) {
+                int value = random.nextInt(20000);
+                int n = 1 + random.nextInt(3);
+                if (random.nextBoolean()) {
+                    bag.add(value, n);
+                    mine.merge(value, (long) n, Long::sum);
+                } else {
+                    other.add(value, n);
+                    theirs.merge(value, (long) n, Long::sum);
+                }
+            }
+            TreeMap<Integer, Long> expected = new TreeMap<Integer, Long>();
+            long changed = 0;
+            if (op == 0) {
+                expected.putAll(mine);
+                for (Map.Entry<Integer, Long> entry : theirs.entrySet()) {
+                    if (expected.merge(entry.getKey(), entry.getValue(), Long::sum).equals(entry.getValue())) {
+                        changed++;
+                    }
+                }
+                Assertions.assertEquals(changed, bag.union(other));
+            } else if (op == 1) {
+                for (Map.Entry<Integer, Long> entry : mine.entrySet()) {
+                    Long count = theirs.get(entry.getKey());
+                    if (count == null) {
+                        changed++;
+                    } else {
+                        expected.put(entry.getKey(), Math.min(count, entry.getValue()));
+                    }
+                }
+                Assertions.assertEquals(changed, bag.intersect(other));
+            } else {
+                for (Map.Entry<Integer, Long> entry : mine.entrySet()) {
+                    long count = entry.getValue() - theirs.getOrDefault(entry.getKey(), 0L);
+                    if (count > 0) {
+                        expected.put(entry.getKey(), count);
+                    } else {
+                        changed++;
+                    }
+                }
+                Assertions.assertEquals(changed, bag.difference(other));
+            }
+            RBTreeTest.checkRBTree(bag.getRoot());
+            Assertions.assertEquals(expected.size(), bag.getSize());
+            long total = 0;
+            for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+                Assertions.assertEquals(entry.getValue().longValue(), bag.count(entry.getKey()));
+                total += entry.getValue();
+            }
+            Assertions.assertEquals(total, bag.getTotalSize());
+            Assertions.assertEquals(new ArrayList<Integer>(expected.keySet()), RBTreeTest.toList(bag));
+        }
+
+        //a plain RBTree counts once per value, and a bag against itself
+        CountedRBTree<String> bag = new CountedRBTree<String>();
+        bag.add("a", 3);
+        bag.add("b", 1);
+        RBTree<String> set = new RBTree<String>();
+        set.addNode("a");
+        set.addNode("c");
+        Assertions.assertEquals(1, bag.union(set));
+        Assertions.assertEquals(4, bag.count("a"));
+        Assertions.assertEquals(1, bag.count("c"));
+        Assertions.assertEquals(0, bag.union(bag));
+        Assertions.assertEquals(8, bag.count("a"));
+        Assertions.assertEquals(12, bag.getTotalSize());
+        Assertions.assertEquals(0, bag.difference(set));
+        Assertions.assertEquals(7, bag.count("a"));
+        Assertions.assertEquals(1, bag.count("c"));
+        Assertions.assertEquals(10, bag.getTotalSize());
+        Assertions.assertEquals(3, bag.difference(bag));
+        Assertions.assertEquals(0, bag.getTotalSize());
+    }
+}
@@ -0,0 +1,92 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class ExpirySchedulerTest {
+    @Test
+    public void testExpiryScheduler() {
+        ExpiryScheduler<String> scheduler = new ExpiryScheduler<String>();
+        Assertions.assertEquals(Long.MAX_VALUE, scheduler.nextDeadline());
+        Assertions.assertTrue(scheduler.schedule("a", 30));
+        Assertions.assertTrue(scheduler.schedule("b", 10));
+        Assertions.assertTrue(scheduler.schedule("c", 20));
+        Assertions.assertTrue(scheduler.schedule("d", 20));
+        //scheduling again moves the deadline
+        Assertions.assertFalse(scheduler.schedule("a", 5));
+        Assertions.assertEquals(Long.valueOf(5), scheduler.getDeadline("a"));
+        Assertions.assertEquals(5, scheduler.nextDeadline());
+
+        Assertions.assertTrue(scheduler.reschedule("b", 40));
+        Assertions.assertFalse(scheduler.reschedule("x", 40));
+        Assertions.assertTrue(scheduler.cancel("a"));
+        Assertions.assertFalse(scheduler.cancel("a"));
+        Assertions.assertNull(scheduler.getDeadline("a"));
+
+        Assertions.assertEquals(new ArrayList<String>(), scheduler.pollExpired(19));
+        //equal deadlines come out in scheduling order, the deadline itself is due
+        Assertions.assertEquals(Arrays.asList("c", "d"), scheduler.pollExpired(20));
+        Assertions.assertEquals(1, scheduler.getSize());
+        Assertions.assertEquals(Arrays.asList("b"), scheduler.pollExpired(Long.MAX_VALUE));
+        Assertions.assertEquals(0, scheduler.getSize());
+        Assertions.assertTrue(scheduler.schedule("b", 1));
+    }
+
+    @Test
+    public void testExpirySchedulerRandom() {
+        ExpiryScheduler<Integer> scheduler = new ExpiryScheduler<Integer>();
+        Map<Integer, Long> expected = new HashMap<Integer, Long>();
+        Random random = new Random(23);
+        long now = 0;
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(20000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    Assertions.assertEquals(expected.remove(key) != null, scheduler.cancel(key));
+                    break;
+                case 1:
+                    long deadline = now + random.nextInt(1000);
+                    Assertions.assertEquals(expected.containsKey(key), scheduler.reschedule(key, deadline));
+                    if (expected.containsKey(key)) {
+                        expected.put(key, deadline);
+                    }
+                    break;
+                case 2:
+                    now += random.nextInt(10);
+                    long last = Long.MIN_VALUE;
+                    for (Integer expired : scheduler.pollExpired(now)) {
+                        Long due = expected.remove(expired);
+                        Assertions.assertTrue(due <= now);
+                        Assertions.assertTrue(due >= last);
+                        last = due;
+                    }
+                    for (Long due : expected.values()) {
+                        Assertions.assertTrue(due > now);
+                    }
+                    break;
+                default:
+                    deadline = now + random.nextInt(1000);
+                    Assertions.assertEquals(expected.put(key, deadline) == null, scheduler.schedule(key, deadline));
+            }
+        }
+        Assertions.assertEquals(expected.size(), scheduler.getSize());
+        for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), scheduler.getDeadline(entry.getKey()));
+        }
+        List<Integer> rest = scheduler.pollExpired(Long.MAX_VALUE);
+        Assertions.assertEquals(expected.size(), rest.size());
+        Assertions.assertEquals(Long.MAX_VALUE, scheduler.nextDeadline());
+    }
+}
@@ -0,0 +1,65 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class FrozenTreeTest {
+    @Test
+    public void testFrozenTree() {
+        Random random = new Random(21);
+        //every size up to a few full levels, then a large one
+        for (int size : new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 15, 16, 17, 100, 5000}) {
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            while (expected.size() < size) {
+                expected.add(random.nextInt(size * 4 + 1) * 2);
+            }
+            RBTree<Integer> rbTree = new RBTree<Integer>();
+            AVLTree<Integer> avlTree = new AVLTree<Integer>();
+            SearchTree<Integer> searchTree = new SearchTree<Integer>();
+            LongRBTree longTree = new LongRBTree();
+            for (Integer value : expected) {
+                rbTree.addNode(value);
+                avlTree.insert(value);
+                searchTree.addNode(value);
+                longTree.addNode(value);
+            }
+            FrozenLongTree frozenLong = longTree.freeze();
+            for (FrozenTree<Integer> frozen : Arrays.asList(rbTree.freeze(), avlTree.freeze(), searchTree.freeze())) {
+                Assertions.assertEquals(size, frozen.getSize());
+                for (int v = -1; v <= size * 8 + 2; v++) {
+                    Assertions.assertEquals(expected.contains(v) ? Integer.valueOf(v) : null, frozen.find(v));
+                    Assertions.assertEquals(expected.floor(v), frozen.floor(v));
+                    Assertions.assertEquals(expected.ceiling(v), frozen.ceiling(v));
+                }
+            }
+            Assertions.assertEquals(size, frozenLong.getSize());
+            for (int v = -1; v <= size * 8 + 2; v++) {
+                Assertions.assertEquals(expected.contains(v), frozenLong.contains(v));
+                Integer floor = expected.floor(v);
+                Integer ceiling = expected.ceiling(v);
+                Assertions.assertEquals(floor == null ? null : Long.valueOf(floor), frozenLong.floor(v));
+                Assertions.assertEquals(ceiling == null ? null : Long.valueOf(ceiling), frozenLong.ceiling(v));
+            }
+        }
+
+        //extreme keys do not overflow the comparisons
+        FrozenLongTree extremes = FrozenLongTree.fromSorted(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE});
+        Assertions.assertTrue(extremes.contains(Long.MIN_VALUE));
+        Assertions.assertTrue(extremes.contains(Long.MAX_VALUE));
+        Assertions.assertEquals(Long.valueOf(Long.MAX_VALUE), extremes.ceiling(1));
+        Assertions.assertEquals(Long.valueOf(Long.MIN_VALUE), extremes.floor(-1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FrozenLongTree.fromSorted(new long[]{2, 1}));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FrozenTree.fromSorted(Arrays.asList(1, 1).iterator(), 2));
+    }
+}
@@ -0,0 +1,35 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class IntRBTreeTest {
+    @Test
+    public void testIntRBTreeInsert() {
+        IntRBTree bst = new IntRBTree();
+        int[] arr = {20, 10, 5, 30, 40, 57, 3, 2, 4, 35, 25, 18, 22, 23, 24, 19, 18};
+        for (int i : arr) {
+            bst.addNode(i);
+        }
+        Assertions.assertEquals(16, bst.getSize());
+        Assertions.assertFalse(bst.addNode(18));
+
+        bst.printTree(bst.getRoot());
+    }
+
+    @Test
+    public void testIntRBTreeContains() {
+        IntRBTree bst = new IntRBTree();
+        for (int i = 1000; i > 0; i--) {
+            bst.addNode(i * 2);
+        }
+        Assertions.assertTrue(bst.contains(40));
+        Assertions.assertFalse(bst.contains(41));
+        Assertions.assertFalse(bst.contains(-2));
+    }
+}
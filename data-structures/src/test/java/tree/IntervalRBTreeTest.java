@@ -0,0 +1,109 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class IntervalRBTreeTest {
+    @Test
+    public void testIntervalRBTree() {
+        IntervalRBTree<Integer> tree = new IntervalRBTree<Integer>();
+        tree.addNode(new Interval<Integer>(15, 20));
+        tree.addNode(new Interval<Integer>(10, 30));
+        tree.addNode(new Interval<Integer>(17, 19));
+        tree.addNode(new Interval<Integer>(5, 20));
+        tree.addNode(new Interval<Integer>(12, 15));
+        tree.addNode(new Interval<Integer>(30, 40));
+        List<String> found = new ArrayList<String>();
+        tree.overlapping(20, 30, interval -> found.add(interval.toString()));
+        Assertions.assertEquals(Arrays.asList("[5, 20]", "[10, 30]", "[15, 20]", "[30, 40]"), found);
+        found.clear();
+        tree.stabbing(16, interval -> found.add(interval.toString()));
+        System.out.println(found);
+        Assertions.assertEquals(Arrays.asList("[5, 20]", "[10, 30]", "[15, 20]"), found);
+        Assertions.assertTrue(tree.overlapsAny(40, 50));
+        Assertions.assertFalse(tree.overlapsAny(41, 50));
+        Assertions.assertFalse(tree.overlapsAny(0, 4));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Interval<Integer>(2, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tree.overlapping(2, 1, interval -> { }));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> tree.addNode(new RBTreeNode<Interval<Integer>>(new Interval<Integer>(1, 2))));
+    }
+
+    @Test
+    public void testIntervalRBTreeRandom() {
+        IntervalRBTree<Integer> tree = new IntervalRBTree<Integer>();
+        TreeSet<Interval<Integer>> expected = new TreeSet<Interval<Integer>>();
+        Random random = new Random(24);
+        for (int i = 0; i < 20000; i++) {
+            int start = random.nextInt(10000);
+            Interval<Integer> interval = new Interval<Integer>(start, start + random.nextInt(random.nextInt(8) == 0 ? 2000 : 50));
+            if (random.nextInt(3) > 0) {
+                expected.add(interval);
+                tree.addNode(interval);
+            } else {
+                Interval<Integer> some = expected.ceiling(interval);
+                if (some != null) {
+                    expected.remove(some);
+                    Assertions.assertEquals(some, tree.removeNode(some));
+                }
+            }
+            if (i % 1000 == 0) {
+                checkMaxEnd(tree.getRoot());
+            }
+        }
+        //batch paths rebuild the tree from nodes, maxEnd must follow
+        List<Interval<Integer>> batch = new ArrayList<Interval<Integer>>();
+        for (int i = 0; i < 20000; i++) {
+            int start = random.nextInt(12000);
+            batch.add(new Interval<Integer>(start, start + random.nextInt(100)));
+        }
+        expected.addAll(batch);
+        tree.addAll(batch);
+        Assertions.assertEquals(expected.size(), tree.getSize());
+        RBTreeTest.checkRBTree(tree.getRoot());
+        checkMaxEnd(tree.getRoot());
+
+        for (int i = 0; i < 2000; i++) {
+            int a = random.nextInt(13000);
+            int b = a + random.nextInt(i % 2 == 0 ? 1 : 300);
+            List<Interval<Integer>> brute = new ArrayList<Interval<Integer>>();
+            for (Interval<Integer> interval : expected) {
+                if (interval.overlaps(a, b)) {
+                    brute.add(interval);
+                }
+            }
+            List<Interval<Integer>> found = new ArrayList<Interval<Integer>>();
+            if (a == b) {
+                tree.stabbing(a, found::add);
+            } else {
+                tree.overlapping(a, b, found::add);
+            }
+            Assertions.assertEquals(brute, found);
+            Assertions.assertEquals(!brute.isEmpty(), tree.overlapsAny(a, b));
+        }
+    }
+
+    /**
+     * @return largest end in the subtree, checking every stored maxEnd on the way
+     */
+    static Integer checkMaxEnd(RBTreeNode<Interval<Integer>> node) {
+        if (node == null) {
+            return Integer.MIN_VALUE;
+        }
+        int max = Math.max(node.getValue().getEnd(), Math.max(checkMaxEnd(node.getLeft()), checkMaxEnd(node.getRight())));
+        Assertions.assertEquals(Integer.valueOf(max), ((IntervalRBTreeNode<Integer>) node).getMaxEnd());
+        return max;
+    }
+}
@@ -0,0 +1,86 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class LockFreeSearchTreeTest {
+    @Test
+    public void testLockFreeSearchTreeInsertAndDelete() {
+        LockFreeSearchTree<Integer> tree = new LockFreeSearchTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                long before = tree.getSize();
+                Assertions.assertEquals(key, tree.addNode(key).intValue());
+                Assertions.assertEquals(expected.add(key), tree.getSize() == before + 1);
+            } else {
+                Assertions.assertEquals(expected.remove(key), tree.removeNode(key));
+            }
+        }
+        Assertions.assertEquals(expected.size(), tree.getSize());
+        for (int key = 0; key < 1000; key++) {
+            Assertions.assertEquals(expected.contains(key) ? Integer.valueOf(key) : null, tree.find(key));
+        }
+        System.out.println(tree.find(40));
+    }
+
+    @Test
+    public void testLockFreeSearchTreeConcurrent() throws Exception {
+        final LockFreeSearchTree<Integer> tree = new LockFreeSearchTree<Integer>();
+        final int threads = 4;
+        final int perThread = 20000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    //insert every key of this thread, then remove the odd ones again.
+                    //shuffled, sorted keys would turn the unbalanced tree into a list
+                    List<Integer> indexes = new ArrayList<Integer>();
+                    for (int i = 0; i < perThread; i++) {
+                        indexes.add(i);
+                    }
+                    Collections.shuffle(indexes, new Random(offset));
+                    for (int i : indexes) {
+                        tree.addNode(i * threads + offset);
+                    }
+                    for (int i : indexes) {
+                        if (i % 2 == 1) {
+                            Assertions.assertTrue(tree.removeNode(i * threads + offset));
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(threads * perThread / 2, tree.getSize());
+        for (int i = 0; i < perThread; i++) {
+            for (int t = 0; t < threads; t++) {
+                Integer found = tree.find(i * threads + t);
+                Assertions.assertEquals(i % 2 == 0, found != null);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class LongArrayRBTreeTest {
+    @Test
+    public void testLongArrayRBTreeInsert() {
+        LongArrayRBTree bst = new LongArrayRBTree();
+        long[] arr = {20, 10, 5, 30, 40, 57, 3, 2, 4, 35, 25, 18, 22, 23, 24, 19, 18};
+        for (long i : arr) {
+            bst.addNode(i);
+        }
+        Assertions.assertEquals(16, bst.getSize());
+
+        bst.printTree();
+    }
+
+    @Test
+    public void testLongArrayRBTreeRemove() {
+        testRandomOperations(new LongArrayRBTree(4, false));
+        testRandomOperations(new LongArrayRBTree(4, true));
+    }
+
+    private void testRandomOperations(LongArrayRBTree bst) {
+        TreeSet<Long> expected = new TreeSet<Long>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.add(key), bst.addNode(key));
+            } else {
+                Assertions.assertEquals(expected.remove(key), bst.removeNode(key));
+            }
+        }
+        Assertions.assertEquals(expected.size(), bst.getSize());
+        for (long key = 0; key < 2000; key++) {
+            Assertions.assertEquals(expected.contains(key), bst.contains(key));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class LongRBTreeTest {
+    @Test
+    public void testLongRBTreeInsert() {
+        LongRBTree bst = new LongRBTree();
+        long[] arr = {20, 10, 5, 30, 40, 57, 3, 2, 4, 35, 25, 18, 22, 23, 24, 19, 18};
+        for (long i : arr) {
+            bst.addNode(i);
+        }
+        Assertions.assertEquals(16, bst.getSize());
+        Assertions.assertFalse(bst.addNode(18));
+
+        bst.printTree(bst.getRoot());
+    }
+
+    @Test
+    public void testLongRBTreeContains() {
+        LongRBTree bst = new LongRBTree();
+        for (long i = 0; i < 1000; i++) {
+            bst.addNode(i * 2 + Long.MAX_VALUE / 2);
+        }
+        Assertions.assertTrue(bst.contains(40 + Long.MAX_VALUE / 2));
+        Assertions.assertFalse(bst.contains(41 + Long.MAX_VALUE / 2));
+        Assertions.assertEquals(1000, bst.getSize());
+    }
+
+    @Test
+    public void testLongRBTreeRemove() {
+        LongRBTree bst = new LongRBTree();
+        TreeSet<Long> expected = new TreeSet<Long>();
+        Random random = new Random(2);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.add(key), bst.addNode(key));
+            } else {
+                Assertions.assertEquals(expected.remove(key), bst.removeNode(key));
+            }
+        }
+        Assertions.assertEquals(expected.size(), bst.getSize());
+        checkBlackHeight(bst.getRoot());
+        for (long key = 0; key < 2000; key++) {
+            Assertions.assertEquals(expected.contains(key), bst.contains(key));
+        }
+    }
+
+    private static int checkBlackHeight(LongRBTreeNode node) {
+        if (node == null) {
+            return 1;
+        }
+        for (LongRBTreeNode child : new LongRBTreeNode[]{node.getLeft(), node.getRight()}) {
+            if (child != null) {
+                Assertions.assertSame(node, child.getParent());
+                Assertions.assertFalse(node.isRed() && child.isRed(), "red node has red child");
+            }
+        }
+        int leftHeight = checkBlackHeight(node.getLeft());
+        Assertions.assertEquals(leftHeight, checkBlackHeight(node.getRight()), "black height");
+        return leftHeight + (node.isBlack() ? 1 : 0);
+    }
+}
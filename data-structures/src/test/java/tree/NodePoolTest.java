@@ -0,0 +1,219 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class NodePoolTest {
+    @Test
+    public void testRBTreeNodePool() {
+        RBTree<Integer> bst = new RBTree<Integer>();
+        NodePool<RBTreeNode<Integer>> pool = new NodePool<RBTreeNode<Integer>>(100);
+        bst.setNodePool(pool);
+        for (int i = 0; i < 1000; i++) {
+            bst.addNode(i);
+        }
+        //removed nodes fill the pool up to its capacity
+        for (int i = 0; i < 300; i++) {
+            Assertions.assertEquals(Integer.valueOf(i), bst.removeNode(i));
+        }
+        Assertions.assertEquals(100, pool.size());
+        //an equal value does not link the new node, it goes straight back
+        bst.addNode(500);
+        Assertions.assertEquals(100, pool.size());
+        //inserts draw from the pool, a recycled node carries nothing over
+        for (int i = 0; i < 50; i++) {
+            bst.addNode(i);
+        }
+        Assertions.assertEquals(50, pool.size());
+        RBTreeTest.checkRBTree(bst.getRoot());
+
+        //insert/evict steady state against a TreeSet
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (Integer value : bst) {
+            expected.add(value);
+        }
+        Random random = new Random(22);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                expected.add(value);
+                bst.addNode(value);
+            } else {
+                Assertions.assertEquals(expected.remove(value) ? Integer.valueOf(value) : null, bst.removeNode(value));
+            }
+        }
+        Assertions.assertEquals(new ArrayList<Integer>(expected), RBTreeTest.toList(bst));
+        RBTreeTest.checkRBTree(bst.getRoot());
+
+        Assertions.assertEquals(pool.size() - 10, pool.trim(10));
+        Assertions.assertEquals(10, pool.size());
+        pool.clear();
+        Assertions.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testAugmentedRBTreeNodePool() {
+        //a recycled node must not carry its old subtree size, max end or count into its next value
+        OrderStatisticRBTree<Integer> ranked = new OrderStatisticRBTree<Integer>();
+        NodePool<RBTreeNode<Integer>> rankedPool = new NodePool<RBTreeNode<Integer>>(100);
+        ranked.setNodePool(rankedPool);
+        IntervalRBTree<Integer> intervals = new IntervalRBTree<Integer>();
+        intervals.setNodePool(new NodePool<RBTreeNode<Interval<Integer>>>(100));
+        CountedRBTree<Integer> bag = new CountedRBTree<Integer>();
+        bag.setNodePool(new NodePool<RBTreeNode<Integer>>(100));
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        TreeMap<Integer, Long> counts = new TreeMap<Integer, Long>();
+        Random random = new Random(22);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(500);
+            Interval<Integer> interval = new Interval<Integer>(value, value + value % 7);
+            if (random.nextBoolean()) {
+                expected.add(value);
+                ranked.addNode(value);
+                intervals.addNode(interval);
+                counts.merge(value, 1L, Long::sum);
+                Assertions.assertEquals(counts.get(value).longValue(), bag.add(value));
+            } else {
+                boolean present = expected.remove(value);
+                Integer removed = present ? Integer.valueOf(value) : null;
+                Assertions.assertEquals(removed, ranked.removeNode(value));
+                Assertions.assertEquals(present ? interval : null, intervals.removeNode(interval));
+                Assertions.assertEquals(removed, bag.removeNode(value));
+                counts.remove(value);
+            }
+        }
+        Assertions.assertTrue(rankedPool.size() > 0);
+        OrderStatisticRBTreeTest.checkSizes(ranked.getRoot());
+        IntervalRBTreeTest.checkMaxEnd(intervals.getRoot());
+        for (int value = 0; value < 500; value++) {
+            Assertions.assertEquals(expected.headSet(value).size(), ranked.rank(value));
+        }
+        Assertions.assertEquals(expected.size(), bag.getSize());
+        long total = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            Assertions.assertEquals(entry.getValue().longValue(), bag.count(entry.getKey()));
+            total += entry.getValue();
+        }
+        Assertions.assertEquals(total, bag.getTotalSize());
+    }
+
+    @Test
+    public void testRBTreeNodePoolSetOperations() {
+        //large enough for the set operations to fork, on a pool with several workers
+        ForkJoinPool workers = new ForkJoinPool(4);
+        try {
+            Random random = new Random(22);
+            for (int round = 0; round < 5; round++) {
+                RBTree<Integer> bst = new RBTree<Integer>();
+                RBTree<Integer> other = new RBTree<Integer>();
+                TreeSet<Integer> expected = new TreeSet<Integer>();
+                TreeSet<Integer> otherValues = new TreeSet<Integer>();
+                for (int i = 0; i < 50000; i++) {
+                    int value = random.nextInt(200000);
+                    expected.add(value);
+                    bst.addNode(value);
+                    value = random.nextInt(200000);
+                    otherValues.add(value);
+                    other.addNode(value);
+                }
+                //odd rounds use a thread-local pool, whose free list must be the calling thread's
+                NodePool<RBTreeNode<Integer>> pool = new NodePool<RBTreeNode<Integer>>(100000, round % 2 == 1);
+                bst.setNodePool(pool);
+                //fill the pool, union draws from it
+                for (int i = 0; i < 20000; i++) {
+                    Integer first = expected.pollFirst();
+                    Assertions.assertEquals(first, bst.removeNode(first));
+                }
+                Assertions.assertEquals(20000, pool.size());
+
+                TreeSet<Integer> union = new TreeSet<Integer>(expected);
+                union.addAll(otherValues);
+                Assertions.assertEquals(union.size() - expected.size(), bst.union(other, workers));
+                Assertions.assertEquals(new ArrayList<Integer>(union), RBTreeTest.toList(bst));
+                Assertions.assertEquals(union.size(), bst.getSize());
+                RBTreeTest.checkRBTree(bst.getRoot());
+                Assertions.assertEquals(Math.max(0, 20000 - (union.size() - expected.size())), pool.size());
+
+                //intersect and difference give the dropped nodes back
+                TreeSet<Integer> intersection = new TreeSet<Integer>(union);
+                intersection.retainAll(expected);
+                int free = pool.size();
+                Assertions.assertEquals(union.size() - intersection.size(), bst.intersect(fromSet(expected), workers));
+                Assertions.assertEquals(new ArrayList<Integer>(intersection), RBTreeTest.toList(bst));
+                Assertions.assertEquals(free + union.size() - intersection.size(), pool.size());
+                RBTreeTest.checkRBTree(bst.getRoot());
+
+                TreeSet<Integer> difference = new TreeSet<Integer>(intersection);
+                difference.removeAll(otherValues);
+                free = pool.size();
+                Assertions.assertEquals(intersection.size() - difference.size(), bst.difference(other, workers));
+                Assertions.assertEquals(new ArrayList<Integer>(difference), RBTreeTest.toList(bst));
+                Assertions.assertEquals(Math.min(100000, free + intersection.size() - difference.size()), pool.size());
+                RBTreeTest.checkRBTree(bst.getRoot());
+
+                //recycled nodes come back clean
+                for (int i = 0; i < 1000; i++) {
+                    int value = random.nextInt(200000);
+                    difference.add(value);
+                    bst.addNode(value);
+                }
+                bst.addAll(Arrays.asList(-3, -2, -1));
+                difference.addAll(Arrays.asList(-3, -2, -1));
+                Assertions.assertEquals(new ArrayList<Integer>(difference), RBTreeTest.toList(bst));
+                RBTreeTest.checkRBTree(bst.getRoot());
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private static RBTree<Integer> fromSet(TreeSet<Integer> values) {
+        return RBTree.fromSorted(values.iterator(), values.size());
+    }
+
+    @Test
+    public void testSearchTreeNodePool() throws Exception {
+        for (boolean finger : new boolean[]{false, true}) {
+            SearchTree<Integer> tree = new SearchTree<Integer>(finger);
+            NodePool<SearchTreeNode<Integer>> pool = new NodePool<SearchTreeNode<Integer>>(1000, true);
+            tree.setNodePool(pool);
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            Random random = new Random(23);
+            for (int i = 0; i < 20000; i++) {
+                int value = random.nextInt(2000);
+                if (random.nextInt(3) > 0) {
+                    expected.add(value);
+                    tree.addNode(value);
+                } else {
+                    Assertions.assertEquals(expected.remove(value), tree.removeNode(value));
+                }
+            }
+            Assertions.assertEquals(expected.size(), tree.getSize());
+            Assertions.assertEquals(new ArrayList<Integer>(expected), RBTreeTest.toList(tree));
+            int free = pool.size();
+            Assertions.assertTrue(free > 0);
+
+            //another thread sees its own, empty free list
+            final int[] otherSize = {-1};
+            Thread other = new Thread(() -> otherSize[0] = pool.size());
+            other.start();
+            other.join();
+            Assertions.assertEquals(0, otherSize[0]);
+            Assertions.assertTrue(tree.removeNode(expected.first()));
+            Assertions.assertEquals(Math.min(1000, free + 1), pool.size());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class OrderStatisticRBTreeTest {
+    @Test
+    public void testRankAndSelect() {
+        OrderStatisticRBTree<Integer> bst = new OrderStatisticRBTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(3);
+        for (int i = 0; i < 3000; i++) {
+            int value = random.nextInt(10000);
+            bst.addNode(value);
+            expected.add(value);
+        }
+        checkSizes(bst.getRoot());
+        RBTreeTest.checkRBTree(bst.getRoot());
+
+        List<Integer> sorted = new ArrayList<Integer>(expected);
+        for (int k = 0; k < sorted.size(); k++) {
+            Assertions.assertEquals(sorted.get(k), bst.select(k));
+            Assertions.assertEquals(k, bst.rank(sorted.get(k)));
+        }
+        for (int i = 0; i < 200; i++) {
+            int lo = random.nextInt(10000);
+            int hi = lo + random.nextInt(3000);
+            Assertions.assertEquals(expected.subSet(lo, true, hi, true).size(), bst.countInRange(lo, hi));
+        }
+        Assertions.assertEquals(0, bst.countInRange(10, 5));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> bst.select(sorted.size()));
+    }
+
+    @Test
+    public void testBulkLoad() {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            values.add(i * 10);
+        }
+        OrderStatisticRBTree<Integer> bst = new OrderStatisticRBTree<Integer>();
+        bst.bulkLoad(values.iterator(), values.size());
+        checkSizes(bst.getRoot());
+        Assertions.assertEquals(50, bst.rank(500));
+        Assertions.assertEquals(Integer.valueOf(990), bst.select(99));
+        Assertions.assertEquals(11, bst.countInRange(100, 200));
+
+        System.out.println(bst.select(42));
+    }
+
+    @Test
+    public void testRemove() {
+        OrderStatisticRBTree<Integer> bst = new OrderStatisticRBTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(17);
+        for (int i = 0; i < 10000; i++) {
+            int value = random.nextInt(500);
+            if (random.nextBoolean()) {
+                bst.addNode(value);
+                expected.add(value);
+            } else {
+                bst.removeNode(value);
+                expected.remove(value);
+            }
+        }
+        checkSizes(bst.getRoot());
+        Assertions.assertEquals(expected.headSet(250).size(), bst.rank(250));
+    }
+
+    static <T extends Comparable<T>> long checkSizes(RBTreeNode<T> node) {
+        if (node == null) {
+            return 0;
+        }
+        long size = checkSizes(node.getLeft()) + checkSizes(node.getRight()) + 1;
+        Assertions.assertEquals(size, ((OrderStatisticRBTreeNode<T>) node).getSubtreeSize());
+        return size;
+    }
+}
@@ -0,0 +1,87 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class PersistentRBTreeTest {
+    @Test
+    public void testPersistentRBTree() {
+        PersistentRBTree<Integer> bst = PersistentRBTree.empty();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        List<PersistentRBTree<Integer>> versions = new ArrayList<PersistentRBTree<Integer>>();
+        List<List<Integer>> contents = new ArrayList<List<Integer>>();
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                bst = bst.removeNode(value);
+                expected.remove(value);
+            } else {
+                bst = bst.addNode(value);
+                expected.add(value);
+            }
+            if (i % 1000 == 0) {
+                versions.add(bst);
+                contents.add(new ArrayList<Integer>(expected));
+            }
+        }
+        Assertions.assertEquals(expected.size(), bst.getSize());
+        Assertions.assertEquals(new ArrayList<Integer>(expected), RBTreeTest.toList(bst));
+        checkRBTree(bst.getRoot());
+
+        //old versions are untouched by the later writes
+        for (int i = 0; i < versions.size(); i++) {
+            Assertions.assertEquals(contents.get(i), RBTreeTest.toList(versions.get(i)));
+            Assertions.assertEquals(contents.get(i).size(), versions.get(i).getSize());
+            checkRBTree(versions.get(i).getRoot());
+        }
+
+        PersistentRBTree<Integer> before = bst;
+        Assertions.assertSame(before, bst.removeNode(-1));
+        PersistentRBTree<Integer> after = bst.addNode(-1);
+        Assertions.assertNull(before.find(-1));
+        Assertions.assertEquals(-1, after.find(-1).intValue());
+        System.out.println(after.getSize());
+    }
+
+    @Test
+    public void testVersionedRBTree() {
+        VersionedRBTree<Integer> bst = new VersionedRBTree<Integer>();
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertNull(bst.addNode(i));
+        }
+        PersistentRBTree<Integer> snapshot = bst.snapshot();
+        Assertions.assertEquals(50, bst.removeNode(50).intValue());
+        Assertions.assertNull(bst.removeNode(50));
+        Assertions.assertEquals(99, bst.getSize());
+        Assertions.assertEquals(50, snapshot.find(50).intValue());
+        Assertions.assertEquals(100, snapshot.getSize());
+        System.out.println(bst.find(49));
+    }
+
+
+    //returns the black height, the root must be black and no red node has a red child
+    private static int checkRBTree(PersistentRBTreeNode<Integer> node) {
+        if (node == null) {
+            return 1;
+        }
+        if (node.red) {
+            Assertions.assertFalse(node.left != null && node.left.red);
+            Assertions.assertFalse(node.right != null && node.right.red);
+        }
+        int left = checkRBTree(node.left);
+        int right = checkRBTree(node.right);
+        Assertions.assertEquals(left, right);
+        return left + (node.red ? 0 : 1);
+    }
+}
@@ -1,7 +1,19 @@
 package tree;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
 /**
  * @author changzer
  * @date 2022/11/5
@@ -51,4 +63,288 @@ public class RBTreeTest {
 
         bst.printTree(bst.getRoot());
     }
+
+    @Test
+    public void testRBTreeBulkLoad() {
+        for (int n = 0; n < 300; n++) {
+            List<Integer> values = new ArrayList<Integer>();
+            for (int i = 0; i < n; i++) {
+                values.add(i * 2);
+            }
+            RBTree<Integer> bst = RBTree.fromSorted(values.iterator(), n);
+            Assertions.assertEquals(n, bst.getSize());
+            checkRBTree(bst.getRoot());
+            for (int i = 0; i < n; i++) {
+                Assertions.assertEquals(i * 2, bst.find(i * 2).intValue());
+                Assertions.assertNull(bst.find(i * 2 + 1));
+            }
+            //the loaded tree keeps working as a normal tree
+            bst.addNode(-1);
+            bst.addNode(n * 2 + 1);
+            checkRBTree(bst.getRoot());
+        }
+
+        RBTree<Integer> bst = RBTree.fromSorted(Arrays.asList(2, 3, 5, 7, 11, 13, 17).iterator(), 7);
+        bst.printTree(bst.getRoot());
+    }
+
+    @Test
+    public void testRBTreeIterator() {
+        RBTree<Integer> bst = new RBTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(5000);
+            bst.addNode(value);
+            expected.add(value);
+        }
+
+        Assertions.assertEquals(new ArrayList<Integer>(expected), toList(bst));
+        List<Integer> descending = new ArrayList<Integer>();
+        for (Iterator<Integer> it = bst.descendingIterator(); it.hasNext(); ) {
+            descending.add(it.next());
+        }
+        Assertions.assertEquals(new ArrayList<Integer>(expected.descendingSet()), descending);
+
+        Assertions.assertEquals(new ArrayList<Integer>(expected.subSet(1000, 2000)), toList(bst.subSet(1000, 2000)));
+        Assertions.assertEquals(new ArrayList<Integer>(expected.headSet(777)), toList(bst.headSet(777)));
+        Assertions.assertEquals(new ArrayList<Integer>(expected.tailSet(4321)), toList(bst.tailSet(4321)));
+        Assertions.assertTrue(toList(bst.subSet(6000, 7000)).isEmpty());
+
+        Iterator<Integer> it = bst.iterator();
+        it.next();
+        bst.addNode(-1);
+        Assertions.assertThrows(ConcurrentModificationException.class, it::next);
+
+        for (Integer value : bst.subSet(20, 100)) {
+            System.out.print(value + "\t");
+        }
+        System.out.println();
+    }
+
+    @Test
+    public void testRBTreeRemove() {
+        RBTree<Integer> bst = new RBTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(13);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(3) > 0) {
+                bst.addNode(value);
+                expected.add(value);
+            } else {
+                Integer removed = bst.removeNode(value);
+                Assertions.assertEquals(expected.remove(value) ? Integer.valueOf(value) : null, removed);
+            }
+            if (i % 500 == 0) {
+                checkRBTree(bst.getRoot());
+                Assertions.assertFalse(bst.getRoot() != null && bst.getRoot().isRed());
+            }
+        }
+        Assertions.assertEquals(expected.size(), bst.getSize());
+        Assertions.assertEquals(new ArrayList<Integer>(expected), toList(bst));
+
+        //remove the even values through the iterator
+        for (Iterator<Integer> it = bst.iterator(); it.hasNext(); ) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        checkRBTree(bst.getRoot());
+        for (Integer value : bst) {
+            Assertions.assertEquals(1, value % 2);
+        }
+
+        RBTree<Integer> small = new RBTree<Integer>();
+        for (int i : new int[]{20, 10, 5, 30, 40, 57, 3, 2}) {
+            small.addNode(i);
+        }
+        System.out.println(small.removeNode(10));
+        small.printTree(small.getRoot());
+    }
+
+    @Test
+    public void testRBTreeAddAll() {
+        RBTree<Integer> bst = new RBTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(15);
+        //the first batch is bulk loaded, then small batches go through the finger, large ones are merged
+        for (int batchSize : new int[]{5000, 10, 100, 1000, 3000, 20000, 1, 500}) {
+            List<Integer> batch = new ArrayList<Integer>();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(random.nextInt(100000));
+            }
+            long before = bst.getSize();
+            long added = bst.addAll(batch);
+            int expectedAdded = expected.size();
+            expected.addAll(batch);
+            Assertions.assertEquals(expected.size() - expectedAdded, added);
+            Assertions.assertEquals(before + added, bst.getSize());
+            Assertions.assertEquals(new ArrayList<Integer>(expected), toList(bst));
+            checkRBTree(bst.getRoot());
+            Assertions.assertFalse(bst.getRoot().isRed());
+        }
+        Assertions.assertEquals(0, bst.addAll(new ArrayList<Integer>()));
+
+        //equal values: the last one wins in override mode, the one in the tree wins otherwise
+        for (boolean override : new boolean[]{true, false}) {
+            RBTree<Entry> entries = new RBTree<Entry>(override);
+            entries.addNode(new Entry(1, "tree"));
+            for (int i = 2; i < 100; i++) {
+                entries.addNode(new Entry(i, "tree"));
+            }
+            entries.addAll(Arrays.asList(new Entry(1, "first"), new Entry(200, "first"), new Entry(1, "last"), new Entry(200, "last")));
+            Assertions.assertEquals(override ? "last" : "tree", entries.find(new Entry(1, null)).payload);
+            Assertions.assertEquals(override ? "last" : "first", entries.find(new Entry(200, null)).payload);
+            checkRBTree(entries.getRoot());
+        }
+    }
+
+    @Test
+    public void testRBTreeStream() {
+        RBTree<Long> bst = RBTree.fromSorted(LongStream.range(0, 200000).boxed().iterator(), 200000);
+        Assertions.assertEquals(199999L * 200000 / 2, bst.parallelStream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(toList(bst), bst.parallelStream().collect(Collectors.toList()));
+        Assertions.assertEquals(100000, bst.stream().filter(v -> v % 2 == 0).count());
+
+        //the first split happens at the root: the prefix holds everything left of it
+        Spliterator<Long> right = bst.spliterator();
+        Assertions.assertTrue(right.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SIZED));
+        Assertions.assertEquals(200000, right.getExactSizeIfKnown());
+        Spliterator<Long> left = right.trySplit();
+        Assertions.assertEquals(-1, right.getExactSizeIfKnown());
+        long[] last = {-1};
+        left.forEachRemaining(v -> last[0] = v);
+        Assertions.assertEquals(bst.getRoot().getValue() - 1, last[0]);
+        Assertions.assertTrue(right.tryAdvance(v -> Assertions.assertEquals(bst.getRoot().getValue(), v)));
+
+        Assertions.assertTrue(new RBTree<Integer>(false).spliterator().hasCharacteristics(Spliterator.DISTINCT));
+        Assertions.assertEquals(0, new RBTree<Integer>().stream().count());
+        Spliterator<Long> stale = bst.spliterator();
+        bst.addNode(-1L);
+        Assertions.assertThrows(ConcurrentModificationException.class, () -> stale.forEachRemaining(v -> { }));
+    }
+
+    @Test
+    public void testRBTreeSetOperations() {
+        Random random = new Random(19);
+        //small against large both ways, equal sizes, and trees large enough to fork
+        int[][] sizes = {{0, 100}, {100, 0}, {1, 1000}, {1000, 1}, {50, 5000}, {5000, 50}, {3000, 3000}, {200000, 30000}};
+        for (int[] size : sizes) {
+            for (int op = 0; op < 3; op++) {
+                TreeSet<Integer> a = new TreeSet<Integer>();
+                TreeSet<Integer> b = new TreeSet<Integer>();
+                int range = Math.max(size[0], size[1]) * 2;
+                while (a.size() < size[0]) {
+                    a.add(random.nextInt(range));
+                }
+                while (b.size() < size[1]) {
+                    b.add(random.nextInt(range));
+                }
+                RBTree<Integer> mine = new RBTree<Integer>();
+                RBTree<Integer> theirs = new RBTree<Integer>();
+                mine.addAll(a);
+                theirs.addAll(b);
+                long changed;
+                if (op == 0) {
+                    changed = mine.union(theirs);
+                    a.addAll(b);
+                    Assertions.assertEquals(a.size() - size[0], changed);
+                } else if (op == 1) {
+                    changed = mine.intersect(theirs);
+                    a.retainAll(b);
+                    Assertions.assertEquals(size[0] - a.size(), changed);
+                } else {
+                    changed = mine.difference(theirs);
+                    a.removeAll(b);
+                    Assertions.assertEquals(size[0] - a.size(), changed);
+                }
+                Assertions.assertEquals(a.size(), mine.getSize());
+                Assertions.assertEquals(new ArrayList<Integer>(a), toList(mine));
+                if (mine.getRoot() != null) {
+                    Assertions.assertNull(mine.getRoot().getParent());
+                    Assertions.assertFalse(mine.getRoot().isRed());
+                }
+                checkRBTree(mine.getRoot());
+                //the other tree is only read
+                Assertions.assertEquals(new ArrayList<Integer>(b), toList(theirs));
+                checkRBTree(theirs.getRoot());
+            }
+        }
+
+        //override mode takes the other tree's value, augmented trees keep their counts
+        RBTree<Entry> entries = new RBTree<Entry>();
+        entries.addNode(new Entry(1, "mine"));
+        RBTree<Entry> others = new RBTree<Entry>();
+        others.addNode(new Entry(1, "theirs"));
+        others.addNode(new Entry(2, "theirs"));
+        Assertions.assertEquals(1, entries.union(others));
+        Assertions.assertEquals("theirs", entries.find(new Entry(1, null)).payload);
+
+        OrderStatisticRBTree<Integer> ranked = new OrderStatisticRBTree<Integer>();
+        RBTree<Integer> odd = new RBTree<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            ranked.addNode(2 * i);
+            odd.addNode(2 * i + 1);
+        }
+        ranked.union(odd);
+        for (int i = 0; i < 2000; i += 97) {
+            Assertions.assertEquals(i, ranked.select(i).intValue());
+        }
+        Assertions.assertEquals(1000, ranked.difference(odd));
+        Assertions.assertEquals(1000, ranked.countInRange(0, 2000));
+        Assertions.assertEquals(1000, ranked.difference(ranked));
+        Assertions.assertNull(ranked.getRoot());
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        final int key;
+        final String payload;
+
+        Entry(int key, String payload) {
+            this.key = key;
+            this.payload = payload;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            return Integer.compare(key, o.key);
+        }
+    }
+
+    /**
+     * values in iteration order, shared by the tree tests
+     */
+    static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<T>();
+        for (T value : iterable) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * check order, parent links, no red-red and equal black height,
+     * return the black height
+     */
+    static <T extends Comparable<T>> int checkRBTree(RBTreeNode<T> node) {
+        if (node == null) {
+            return 1;
+        }
+        RBTreeNode<T> left = node.getLeft();
+        RBTreeNode<T> right = node.getRight();
+        if (left != null) {
+            Assertions.assertSame(node, left.getParent());
+            Assertions.assertTrue(left.getValue().compareTo(node.getValue()) < 0);
+            Assertions.assertFalse(node.isRed() && left.isRed(), "red node has red child");
+        }
+        if (right != null) {
+            Assertions.assertSame(node, right.getParent());
+            Assertions.assertTrue(right.getValue().compareTo(node.getValue()) > 0);
+            Assertions.assertFalse(node.isRed() && right.isRed(), "red node has red child");
+        }
+        int leftHeight = checkRBTree(left);
+        Assertions.assertEquals(leftHeight, checkRBTree(right), "black height");
+        return leftHeight + (node.isBlack() ? 1 : 0);
+    }
 }
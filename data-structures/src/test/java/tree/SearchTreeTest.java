@@ -1,7 +1,13 @@
 package tree;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
 /**
  * @author changzer
  * @date 2022/11/7
@@ -33,4 +39,105 @@ public class SearchTreeTest {
 
         tree.printTree(tree.getRoot());
     }
+
+    @Test
+    public void testSearchTreeAddAll() {
+        SearchTree<Integer> tree = new SearchTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(15);
+        for (int batchSize : new int[]{5000, 10, 100, 1000, 3000, 20000, 1, 500}) {
+            List<Integer> batch = new ArrayList<Integer>();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(random.nextInt(100000));
+            }
+            int expectedAdded = expected.size();
+            expected.addAll(batch);
+            Assertions.assertEquals(expected.size() - expectedAdded, tree.addAll(batch));
+            Assertions.assertEquals(expected.size(), tree.getSize());
+            List<Integer> values = new ArrayList<Integer>();
+            for (Integer value : tree) {
+                values.add(value);
+            }
+            Assertions.assertEquals(new ArrayList<Integer>(expected), values);
+        }
+        for (int i = 0; i < 100000; i++) {
+            Assertions.assertEquals(expected.contains(i), tree.find(i) != null);
+        }
+    }
+
+    @Test
+    public void testSearchTreeFingerSearch() {
+        SearchTree<Integer> tree = new SearchTree<Integer>(true);
+        TreeStats stats = new TreeStats();
+        tree.setMetrics(stats);
+        //timestamps: ascending keys that a plain search tree turns into a chain
+        for (int i = 0; i < 200000; i++) {
+            tree.addNode(i);
+        }
+        Assertions.assertEquals(200000, tree.getSize());
+        Assertions.assertTrue(height(tree.getRoot()) <= Math.log(200000) / Math.log(1 / 0.7) + 1);
+        //the finger makes each sequential insert a short walk
+        Assertions.assertTrue(stats.getAverageDepth() < 4, "average depth " + stats.getAverageDepth());
+        for (int i = 0; i < 200000; i += 7) {
+            Assertions.assertEquals(i, tree.find(i).intValue());
+        }
+        Assertions.assertNull(tree.find(-1));
+        Assertions.assertNull(tree.find(200000));
+
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (int i = 0; i < 200000; i++) {
+            expected.add(i);
+        }
+        Random random = new Random(16);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(300000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(value), tree.removeNode(value));
+            } else {
+                expected.add(value);
+                tree.addNode(value);
+            }
+        }
+        Assertions.assertEquals(expected.size(), tree.getSize());
+        List<Integer> values = new ArrayList<Integer>();
+        for (Integer value : tree) {
+            values.add(value);
+        }
+        Assertions.assertEquals(new ArrayList<Integer>(expected), values);
+
+        //removing most of the tree triggers a full rebuild
+        for (int i = 0; i < 300000; i++) {
+            if (i % 10 != 0 && expected.remove(i)) {
+                Assertions.assertTrue(tree.removeNode(i));
+            }
+        }
+        Assertions.assertEquals(expected.size(), tree.getSize());
+        Assertions.assertTrue(height(tree.getRoot()) < 40);
+        for (int i = 0; i < 300000; i++) {
+            Assertions.assertEquals(expected.contains(i), tree.find(i) != null);
+        }
+    }
+
+    //iterative, the height of a chain would overflow the stack
+    private static int height(SearchTreeNode<Integer> node) {
+        int height = 0;
+        List<SearchTreeNode<Integer>> level = new ArrayList<SearchTreeNode<Integer>>();
+        if (node != null) {
+            level.add(node);
+        }
+        while (!level.isEmpty()) {
+            height++;
+            List<SearchTreeNode<Integer>> next = new ArrayList<SearchTreeNode<Integer>>();
+            for (SearchTreeNode<Integer> n : level) {
+                if (n.getLeft() != null) {
+                    next.add(n.getLeft());
+                }
+                if (n.getRight() != null) {
+                    next.add(n.getRight());
+                }
+            }
+            level = next;
+        }
+        return height;
+    }
 }
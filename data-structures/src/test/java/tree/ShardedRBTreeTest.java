@@ -0,0 +1,113 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class ShardedRBTreeTest {
+    @Test
+    public void testShardedRBTree() {
+        ShardedRBTree<Integer> tree = new ShardedRBTree<Integer>(Arrays.asList(100, 200, 300), 0, true);
+        Assertions.assertEquals(4, tree.getShardCount());
+        for (int i = 399; i >= 0; i--) {
+            Assertions.assertNull(tree.addNode(i));
+        }
+        Assertions.assertEquals(Integer.valueOf(150), tree.addNode(150));
+        Assertions.assertEquals(400, tree.getSize());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertEquals(100, tree.getShardSize(i));
+        }
+        Assertions.assertEquals(Integer.valueOf(250), tree.find(250));
+        Assertions.assertNull(tree.find(400));
+        Assertions.assertEquals(Integer.valueOf(300), tree.removeNode(300));
+        Assertions.assertNull(tree.find(300));
+        Assertions.assertEquals(399, RBTreeTest.toList(tree).size());
+
+        //the last shard is split at its median, values stay where find looks for them
+        Assertions.assertTrue(tree.splitShard(3));
+        Assertions.assertEquals(Arrays.asList(100, 200, 300, 350), tree.getBounds());
+        Assertions.assertEquals(Integer.valueOf(301), tree.find(301));
+        Assertions.assertEquals(Integer.valueOf(349), tree.find(349));
+        Assertions.assertFalse(new ShardedRBTree<Integer>().splitShard(0));
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 400; i++) {
+            if (i != 300) {
+                expected.add(i);
+            }
+        }
+        Assertions.assertEquals(expected, RBTreeTest.toList(tree));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ShardedRBTree<Integer>(Arrays.asList(2, 1), 0, true));
+    }
+
+    @Test
+    public void testShardedRBTreeConcurrentWriters() throws Exception {
+        //one shard to start with, writers grow it past the limit so it splits while they run
+        final ShardedRBTree<Integer> tree = new ShardedRBTree<Integer>(new ArrayList<Integer>(), 5000, true);
+        final int writers = 4;
+        final int perWriter = 25000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers * 2);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int w = 0; w < writers; w++) {
+            final int offset = w * perWriter;
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perWriter; i++) {
+                        tree.addNode(offset + i);
+                        if (i % 3 == 0) {
+                            tree.removeNode(offset + i);
+                        }
+                    }
+                }
+            }));
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perWriter; i++) {
+                        Integer found = tree.find(offset + i);
+                        if (found != null) {
+                            Assertions.assertEquals(offset + i, found.intValue());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < writers * perWriter; i++) {
+            if (i % perWriter % 3 != 0) {
+                expected.add(i);
+            }
+        }
+        Assertions.assertEquals(expected.size(), tree.getSize());
+        Assertions.assertEquals(expected, RBTreeTest.toList(tree));
+        Assertions.assertTrue(tree.getShardCount() > 1);
+        for (int i = 0; i < tree.getShardCount(); i++) {
+            Assertions.assertTrue(tree.getShardSize(i) <= 5000);
+        }
+        for (Integer value : expected) {
+            Assertions.assertEquals(value, tree.find(value));
+        }
+        System.out.println(tree.getShardCount() + " shards, bounds " + tree.getBounds());
+    }
+}
@@ -0,0 +1,73 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class SplayTreeTest {
+    @Test
+    public void testSplayTree() {
+        SplayTree<Integer> tree = new SplayTree<Integer>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(17);
+        for (int i = 0; i < 50000; i++) {
+            int value = random.nextInt(5000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    Assertions.assertEquals(expected.remove(value), tree.removeNode(value));
+                    break;
+                case 1:
+                    Assertions.assertEquals(expected.contains(value) ? Integer.valueOf(value) : null, tree.find(value));
+                    break;
+                default:
+                    expected.add(value);
+                    Assertions.assertEquals(value, tree.addNode(value).intValue());
+            }
+        }
+        Assertions.assertEquals(expected.size(), tree.getSize());
+        List<Integer> values = new ArrayList<Integer>();
+        for (Integer value : tree) {
+            values.add(value);
+        }
+        Assertions.assertEquals(new ArrayList<Integer>(expected), values);
+    }
+
+    @Test
+    public void testSplayTreeHotKeys() {
+        SplayTree<Integer> tree = new SplayTree<Integer>();
+        //ascending inserts leave a left chain, the first lookup pays for it once
+        for (int i = 0; i < 100000; i++) {
+            tree.addNode(i);
+        }
+        TreeStats stats = new TreeStats();
+        tree.setMetrics(stats);
+        Assertions.assertEquals(0, tree.find(0).intValue());
+        Assertions.assertEquals(0, tree.getRoot().getValue().intValue());
+
+        //once touched, a few hot keys are found within a handful of steps
+        for (int i = 0; i < 4; i++) {
+            tree.find(50000 + i);
+        }
+        stats.reset();
+        for (int i = 0; i < 10000; i++) {
+            tree.find(50000 + i % 4);
+        }
+        Assertions.assertTrue(stats.getAverageDepth() < 5, "average depth " + stats.getAverageDepth());
+        System.out.println(stats.getAverageDepth());
+
+        Assertions.assertTrue(tree.removeNode(50001));
+        Assertions.assertNull(tree.find(50001));
+        Assertions.assertFalse(tree.removeNode(50001));
+        Assertions.assertEquals(99999, tree.getSize());
+        tree.printTree(tree.getRoot().getLeft().getLeft());
+    }
+}
@@ -0,0 +1,109 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class TreeSnapshotTest {
+    @Test
+    public void testRBTreeSnapshot() throws IOException {
+        RBTree<Long> bst = new RBTree<Long>();
+        Random random = new Random(12);
+        for (int i = 0; i < 50000; i++) {
+            bst.addNode(random.nextLong());
+        }
+        Path path = Files.createTempFile("rbtree", ".snapshot");
+        try {
+            TreeSnapshot.write(bst, path, TreeKeyCodec.LONG);
+            Assertions.assertEquals(TreeSnapshot.HEADER_BYTES + bst.getSize() * 8, Files.size(path));
+
+            MappedTreeSnapshot<Long> snapshot = MappedTreeSnapshot.open(path, TreeKeyCodec.LONG);
+            Assertions.assertEquals(bst.getSize(), snapshot.getSize());
+            for (Long value : bst) {
+                Assertions.assertEquals(value, snapshot.find(value));
+            }
+            Assertions.assertEquals(bst.firstNode().getValue(), snapshot.get(0));
+
+            RBTree<Long> loaded = snapshot.toRBTree();
+            Assertions.assertEquals(RBTreeTest.toList(bst), RBTreeTest.toList(loaded));
+            RBTreeTest.checkRBTree(loaded.getRoot());
+            System.out.println(snapshot.getSize());
+
+            //a different key width is refused
+            Assertions.assertThrows(IOException.class, () -> MappedTreeSnapshot.open(path, TreeKeyCodec.INTEGER));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSearchTreeSnapshot() throws IOException {
+        SearchTree<Integer> bst = new SearchTree<Integer>();
+        //sorted inserts, a degenerate chain the in-order walk must not recurse on
+        for (int i = 0; i < 20000; i++) {
+            bst.addNode(i * 2);
+        }
+        Path path = Files.createTempFile("searchtree", ".snapshot");
+        try {
+            TreeSnapshot.write(bst, path, TreeKeyCodec.INTEGER);
+            MappedTreeSnapshot<Integer> snapshot = MappedTreeSnapshot.open(path, TreeKeyCodec.INTEGER);
+            Assertions.assertEquals(20000, snapshot.getSize());
+            Assertions.assertEquals(398, snapshot.find(398).intValue());
+            Assertions.assertNull(snapshot.find(399));
+            Assertions.assertNull(snapshot.find(-1));
+            Assertions.assertEquals(RBTreeTest.toList(bst), RBTreeTest.toList(snapshot));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSnapshotReplace() throws IOException {
+        Path dir = Files.createTempDirectory("snapshots");
+        Path path = dir.resolve("tree.snapshot");
+        try {
+            TreeSnapshot.write(Arrays.asList(1L, 2L, 3L).iterator(), 3, path, TreeKeyCodec.LONG);
+            MappedTreeSnapshot<Long> mapped = MappedTreeSnapshot.open(path, TreeKeyCodec.LONG);
+
+            //a write that fails leaves the last good snapshot and no temporary file
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> TreeSnapshot.write(Arrays.asList(5L, 4L).iterator(), 2, path, TreeKeyCodec.LONG));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> TreeSnapshot.write(Arrays.asList(5L).iterator(), 2, path, TreeKeyCodec.LONG));
+            Assertions.assertEquals(3, MappedTreeSnapshot.open(path, TreeKeyCodec.LONG).getSize());
+            try (Stream<Path> files = Files.list(dir)) {
+                Assertions.assertEquals(1, files.count());
+            }
+
+            //a replaced file does not pull the pages from under an open mapping
+            TreeSnapshot.write(Arrays.asList(7L, 8L).iterator(), 2, path, TreeKeyCodec.LONG);
+            Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), RBTreeTest.toList(mapped));
+            Assertions.assertEquals(Arrays.asList(7L, 8L), RBTreeTest.toList(MappedTreeSnapshot.open(path, TreeKeyCodec.LONG)));
+
+            //a count whose size * width overflows to the file length is refused
+            long count = (1L << 61) + 2;
+            Assertions.assertEquals(Files.size(path), TreeSnapshot.HEADER_BYTES + count * 8);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(8).putLong(0, count), 12);
+            }
+            Assertions.assertThrows(IOException.class, () -> MappedTreeSnapshot.open(path, TreeKeyCodec.LONG));
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+}
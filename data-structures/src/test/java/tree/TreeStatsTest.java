@@ -0,0 +1,68 @@
+package tree;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * @author changzer
+ * @date 2026/10/18
+ * @apiNote
+ */
+public class TreeStatsTest {
+    @Test
+    public void testTreeStats() throws Exception {
+        TreeStats rbStats = new TreeStats();
+        RBTree<Integer> rbTree = new RBTree<Integer>();
+        rbTree.setMetrics(rbStats);
+        TreeStats searchStats = new TreeStats();
+        SearchTree<Integer> searchTree = new SearchTree<Integer>();
+        searchTree.setMetrics(searchStats);
+        TreeStats avlStats = new TreeStats();
+        AVLTree<Integer> avlTree = new AVLTree<Integer>();
+        avlTree.setMetrics(avlStats);
+
+        //sorted keys: balanced trees rotate, the plain search tree becomes a chain
+        for (int i = 0; i < 1000; i++) {
+            rbTree.addNode(i);
+            searchTree.addNode(i);
+            avlTree.insert(i);
+        }
+        Assertions.assertEquals(999, rbStats.getDescents());
+        Assertions.assertTrue(rbStats.getRotations() > 0);
+        Assertions.assertTrue(rbStats.getMaxDepth() <= 20);
+        Assertions.assertEquals(999, searchStats.getMaxDepth());
+        Assertions.assertEquals(999 - 62, searchStats.getDepthHistogram()[TreeStats.HISTOGRAM_BUCKETS - 1]);
+        long[] rebalances = avlStats.getRebalances();
+        Assertions.assertTrue(rebalances[TreeMetrics.REBALANCE_RR] > 0);
+        Assertions.assertEquals(0, rebalances[TreeMetrics.REBALANCE_LL] + rebalances[TreeMetrics.REBALANCE_LR]);
+
+        rbStats.reset();
+        for (int i = 0; i < 1000; i++) {
+            rbTree.find(i);
+        }
+        Assertions.assertEquals(1000, rbStats.getDescents());
+        Assertions.assertEquals(rbStats.getComparisons(), (long) (rbStats.getAverageDepth() * 1000));
+        System.out.println(rbStats.getAverageDepth() + " " + Arrays.toString(rbStats.getDepthHistogram()));
+
+        ObjectName name = rbStats.register("rbtree-test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Assertions.assertEquals(1000L, server.getAttribute(name, "Descents"));
+            server.invoke(name, "reset", null, null);
+            Assertions.assertEquals(0, rbStats.getDescents());
+        } finally {
+            rbStats.unregister();
+        }
+        Assertions.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        //null switches counting off
+        rbTree.setMetrics(null);
+        rbTree.find(1);
+        Assertions.assertEquals(0, rbStats.getDescents());
+    }
+}